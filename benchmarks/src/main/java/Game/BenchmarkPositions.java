@@ -0,0 +1,53 @@
+package Game;
+
+import java.util.Random;
+
+// Reproducible mid-game positions: random legal moves played with normal scoring and turns
+final class BenchmarkPositions {
+
+    private BenchmarkPositions() { }
+
+    static SOSGameBase midGame(String mode, int boardSize, double fill, long seed) {
+        SOSGame.ComputerPlayer blue = new SOSGame.ComputerPlayer("Blue");
+        SOSGame.ComputerPlayer red = new SOSGame.ComputerPlayer("Red");
+        SOSGameBase game = mode.equals("simple")
+                ? new SimpleSOSGame(boardSize, blue, red)
+                : new GeneralSOSGame(boardSize, blue, red);
+
+        Random random = new Random(seed);
+        int moves = (int) (boardSize * boardSize * fill);
+        for (int i = 0; i < moves; i++) {
+            int r;
+            int c;
+            do {
+                r = random.nextInt(boardSize);
+                c = random.nextInt(boardSize);
+            } while (game.getBoard()[r][c] != ' ');
+            char letter = random.nextInt(3) == 0 ? 'O' : 'S';
+
+            // Simple mode would end on the first SOS, so keep such positions open
+            if (mode.equals("simple") && game.countSOSCompletedBy(r, c, letter) > 0) {
+                letter = letter == 'S' ? 'O' : 'S';
+                if (game.countSOSCompletedBy(r, c, letter) > 0) continue;
+            }
+
+            game.placeLetter(r, c, letter);
+            if (game.checkForNewSOS() == 0) {
+                game.switchPlayer();
+            }
+        }
+        return game;
+    }
+
+    // An empty cell and letter whose placement completes no SOS, or null on a full board
+    static int[] quietMove(SOSGameBase game) {
+        int size = game.getBoardSize();
+        for (int r = 0; r < size; r++)
+            for (int c = 0; c < size; c++)
+                if (game.getBoard()[r][c] == ' ')
+                    for (char letter : new char[] {'S', 'O'})
+                        if (game.countSOSCompletedBy(r, c, letter) == 0)
+                            return new int[] {r, c, letter};
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package Game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Per-move game-state work on a 40% filled board: SOS detection, status checks,
+// static evaluation and move generation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+
+    @Param({"3", "4", "6", "8", "12", "16", "24", "32"})
+    public int boardSize;
+
+    @Param({"general", "simple"})
+    public String mode;
+
+    private SOSGameBase game;
+    private int row;
+    private int col;
+    private char letter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = BenchmarkPositions.midGame(mode, boardSize, 0.4, 42);
+        int[] move = BenchmarkPositions.quietMove(game);
+        row = move[0];
+        col = move[1];
+        letter = (char) move[2];
+    }
+
+    // Place a letter that scores nothing, look for new SOS around it, then take it back
+    @Benchmark
+    public int countNewSOS() {
+        game.placeLetter(row, col, letter);
+        int found = game.countNewSOS(game.getCurrentPlayer());
+        game.setCell(row, col, ' ');
+        return found;
+    }
+
+    @Benchmark
+    public void checkGameStatus(Blackhole bh) {
+        game.checkGameStatus();
+        bh.consume(game.getWinner());
+        bh.consume(game.isDraw());
+    }
+
+    @Benchmark
+    public int evaluatePosition() {
+        return SOSGame.ComputerPlayer.evaluatePosition(game);
+    }
+
+    @Benchmark
+    public Object getAllPossibleMoves() {
+        return SOSGame.ComputerPlayer.getAllPossibleMoves(game);
+    }
+}
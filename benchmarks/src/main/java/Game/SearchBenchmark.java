@@ -0,0 +1,65 @@
+package Game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One full alpha-beta decision on a 40% filled board, starting from an empty
+// transposition table each time so results from earlier calls are not reused. The
+// opening book and the endgame solver are off: small boards start inside the
+// endgame threshold, and the solver keeps its own table between calls.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"3", "4", "6", "8", "12", "16", "24", "32"})
+    public int boardSize;
+
+    @Param({"general"})
+    public String mode;
+
+    @Param({"2"})
+    public int depth;
+
+    @Param({"1"})
+    public int threads;
+
+    private SOSGameBase game;
+    private SOSGame.ComputerPlayer computer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = BenchmarkPositions.midGame(mode, boardSize, 0.4, 42);
+        computer = (SOSGame.ComputerPlayer) game.getCurrentPlayer();
+        computer.setMaxDepth(depth);
+        computer.setThreads(threads);
+        computer.setSeed(1);
+        computer.setEndgameThreshold(0);
+        computer.setOpeningBookDirectory(null);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        computer.setTranspositionTable(16, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    @Benchmark
+    public SOSGame.ComputerPlayer.Move computeBestMove() {
+        return computer.computeBestMove(game);
+    }
+}
@@ -0,0 +1,115 @@
+package Game;
+
+// Packed board: separate S, O and occupancy bitsets, one run of long words per row.
+// Column c of a row lives in bit (c % 64) of word (c / 64).
+public class BitBoard {
+
+    // Planes that can be matched by countWindows
+    public static final int S = 0;
+    public static final int O = 1;
+    public static final int EMPTY = 2;
+
+    private final int size;
+    private final int words;
+    private final long[] s;
+    private final long[] o;
+    private final long[] occupied;
+    private final long[] rowMask;
+
+    public BitBoard(int size) {
+        this.size = size;
+        this.words = (size + 63) >>> 6;
+        this.s = new long[size * words];
+        this.o = new long[size * words];
+        this.occupied = new long[size * words];
+        this.rowMask = new long[words];
+        for (int w = 0; w < words; w++) {
+            int bits = Math.min(64, size - w * 64);
+            rowMask[w] = bits == 64 ? -1L : (1L << bits) - 1;
+        }
+    }
+
+    public int getSize() { return size; }
+
+    public char get(int row, int col) {
+        int i = row * words + (col >>> 6);
+        long bit = 1L << col;
+        if ((s[i] & bit) != 0) return 'S';
+        if ((o[i] & bit) != 0) return 'O';
+        return ' ';
+    }
+
+    public void set(int row, int col, char letter) {
+        int i = row * words + (col >>> 6);
+        long bit = 1L << col;
+        s[i] &= ~bit;
+        o[i] &= ~bit;
+        occupied[i] &= ~bit;
+        if (letter == 'S') {
+            s[i] |= bit;
+            occupied[i] |= bit;
+        } else if (letter == 'O') {
+            o[i] |= bit;
+            occupied[i] |= bit;
+        }
+    }
+
+    // Write the move code of both letters for every empty cell, in row-major order:
+    // 2 * cell for S and 2 * cell + 1 for O, where cell = row * size + col
+    public int generateMoves(int[] out) {
+        int count = 0;
+        for (int r = 0; r < size; r++) {
+            for (int w = 0; w < words; w++) {
+                long empty = ~occupied[r * words + w] & rowMask[w];
+                while (empty != 0) {
+                    int cell = r * size + (w << 6) + Long.numberOfTrailingZeros(empty);
+                    out[count++] = cell * 2;
+                    out[count++] = cell * 2 + 1;
+                    empty &= empty - 1;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Count the 3-cell windows in all four directions whose cells match the given planes,
+    // e.g. countWindows(S, O, S) is the number of SOS on the board
+    public int countWindows(int first, int middle, int last) {
+        int count = 0;
+        for (int[] d : SOSGameBase.DIRS) {
+            int dr = d[0];
+            int dc = d[1];
+            for (int r = 0; r + 2 * dr < size; r++) {
+                for (int w = 0; w < words; w++) {
+                    long match = word(first, r, w)
+                            & shifted(middle, r + dr, w, dc)
+                            & shifted(last, r + 2 * dr, w, 2 * dc);
+                    count += Long.bitCount(match);
+                }
+            }
+        }
+        return count;
+    }
+
+    private long word(int plane, int r, int w) {
+        int i = r * words + w;
+        switch (plane) {
+            case S: return s[i];
+            case O: return o[i];
+            default: return ~occupied[i] & rowMask[w];
+        }
+    }
+
+    // Word w of row r shifted so that bit c holds column c + k
+    private long shifted(int plane, int r, int w, int k) {
+        if (k == 0) return word(plane, r, w);
+        if (k > 0) {
+            long bits = word(plane, r, w) >>> k;
+            if (w + 1 < words) bits |= word(plane, r, w + 1) << (64 - k);
+            return bits;
+        }
+        long bits = word(plane, r, w) << -k;
+        if (w > 0) bits |= word(plane, r, w - 1) >>> (64 + k);
+        return bits;
+    }
+}
@@ -0,0 +1,84 @@
+package Game;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The 8 symmetries of a square board. Transform t mirrors the columns if bit 2 is set,
+// then turns the board clockwise a quarter turn (t & 3) times. The rules and the
+// evaluation look the same from every orientation (evaluatePosition's center bonus
+// covers the whole middle 2x2 of even boards), so a position and its images are
+// interchangeable. SOSGameBase keeps one hash per transform, and the canonical
+// orientation is the one with the smallest hash.
+public final class BoardSymmetry {
+
+    public static final int COUNT = 8;
+    public static final int IDENTITY = 0;
+
+    // Per board size, MAPS[t][cell] is the cell that transform t moves cell to
+    private static final Map<Integer, int[][]> MAPS = new ConcurrentHashMap<>();
+
+    private BoardSymmetry() { }
+
+    static int[][] cellMaps(int boardSize) {
+        return MAPS.computeIfAbsent(boardSize, BoardSymmetry::buildMaps);
+    }
+
+    private static int[][] buildMaps(int n) {
+        int[][] maps = new int[COUNT][n * n];
+        for (int t = 0; t < COUNT; t++) {
+            for (int r = 0; r < n; r++) {
+                for (int c = 0; c < n; c++) {
+                    maps[t][r * n + c] = mapRow(t, r, c, n) * n + mapCol(t, r, c, n);
+                }
+            }
+        }
+        return maps;
+    }
+
+    public static int mapRow(int t, int row, int col, int boardSize) {
+        if ((t & 4) != 0) col = boardSize - 1 - col;
+        switch (t & 3) {
+            case 0: return row;
+            case 1: return col;
+            case 2: return boardSize - 1 - row;
+            default: return boardSize - 1 - col;
+        }
+    }
+
+    public static int mapCol(int t, int row, int col, int boardSize) {
+        if ((t & 4) != 0) col = boardSize - 1 - col;
+        switch (t & 3) {
+            case 0: return col;
+            case 1: return boardSize - 1 - row;
+            case 2: return boardSize - 1 - col;
+            default: return row;
+        }
+    }
+
+    // Mirrored transforms undo themselves; a turn is undone by the remaining turns
+    public static int inverse(int t) {
+        return (t & 4) != 0 ? t : (4 - t) & 3;
+    }
+
+    // Image of an int move (2 * cell, plus 1 for O) under t
+    static int mapMove(int t, int move, int[][] maps) {
+        return maps[t][move >>> 1] << 1 | (move & 1);
+    }
+
+    // Copy of board as seen after transform t
+    public static char[][] apply(int t, char[][] board) {
+        int n = board.length;
+        char[][] image = new char[n][n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                image[mapRow(t, r, c, n)][mapCol(t, r, c, n)] = board[r][c];
+            }
+        }
+        return image;
+    }
+
+    // The game's board in canonical orientation; the transform used is game.getCanonicalTransform()
+    public static char[][] canonicalBoard(SOSGameBase game) {
+        return apply(game.getCanonicalTransform(), game.getBoard());
+    }
+}
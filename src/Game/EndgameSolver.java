@@ -0,0 +1,216 @@
+package Game;
+
+// Exact solver for positions with few empty cells. Instead of a depth limit and
+// evaluatePosition it plays every line to the end and returns the real outcome for
+// the side to move:
+//   general mode - the score difference (own minus opponent's) still to be made,
+//                  an SOS keeping the turn for the player who made it
+//   simple mode  - 1 win, 0 draw, -1 loss
+// Moves are tried with makeMove/unmakeMove on a searchCopy, like alpha-beta, and the
+// SOS count makeMove returns is the score of the move. Those values depend only on
+// the letters on the board, so results are memoized in a
+// transposition table keyed by the canonical board hash (shared by all 8 symmetric
+// images, moves stored in canonical orientation) and stay valid for the whole game.
+class EndgameSolver {
+
+    // Larger than any reachable margin
+    static final int INFINITY = 1000;
+
+    private static final long SIMPLE_KEY = 0x5A17E5A7D0C0FFEEL;
+    private static final int SCORES_SOS = 1 << 20;
+
+    private final SOSGameBase game;
+    private final int boardSize;
+    private final boolean general;
+    private final long modeKey;
+    private final TranspositionTable table;
+    private final SearchControl control;
+    private final TranspositionTable.Entry entry = new TranspositionTable.Entry();
+    private final int[][] symmetryMaps;
+
+    // Move and ordering-score buffers indexed by the number of empty cells
+    private final int[][] moveStack;
+    private final int[][] scoreStack;
+
+    private final SearchStats stats;
+    private final boolean detailed;
+    private final int rootEmpty;
+    private int pendingNodes = 0;
+
+    EndgameSolver(SOSGameBase game, TranspositionTable table, SearchControl control) {
+        this(game, table, control, false);
+    }
+
+    EndgameSolver(SOSGameBase game, TranspositionTable table, SearchControl control, boolean detailed) {
+        this.game = game;
+        this.boardSize = game.getBoardSize();
+        this.general = game.getGameMode().equals("general");
+        this.modeKey = general ? 0 : SIMPLE_KEY;
+        this.table = table;
+        this.control = control;
+        this.symmetryMaps = game.getSymmetryMaps();
+
+        int empty = game.getEmptyCellCount();
+        this.rootEmpty = empty;
+        this.detailed = detailed;
+        this.stats = detailed ? new SearchStats(empty) : new SearchStats();
+        this.stats.source = "endgame";
+        this.moveStack = new int[empty + 1][2 * empty];
+        this.scoreStack = new int[empty + 1][2 * empty];
+    }
+
+    SearchStats getStats() { return stats; }
+
+    // Best move for the side to move, or null if the budget ran out first. The root is
+    // searched without table cutoffs so that the move returned is exact, not a bound's.
+    SOSGame.ComputerPlayer.Move solveRoot() {
+        int empty = game.getEmptyCellCount();
+        int[] moves = moveStack[empty];
+        int[] scores = scoreStack[empty];
+        int count = orderMoves(moves, scores, TranspositionTable.NO_MOVE);
+
+        int alpha = -INFINITY;
+        int bestMove = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            pickNext(moves, scores, count, i);
+            int value = moveValue(moves[i], alpha, INFINITY);
+            if (control.isAborted()) break;
+            if (value > alpha) {
+                alpha = value;
+                bestMove = moves[i];
+            }
+        }
+        flushNodes();
+        if (control.isAborted() || bestMove == TranspositionTable.NO_MOVE) return null;
+
+        stats.depth = empty;
+        int cell = bestMove >>> 1;
+        return new SOSGame.ComputerPlayer.Move(cell / boardSize, cell % boardSize, letterOf(bestMove));
+    }
+
+    // Exact value for the side to move, if it lies within (alpha, beta); otherwise a bound
+    int solve(int alpha, int beta) {
+        stats.nodes++;
+        if (++pendingNodes == SearchControl.CHECK_INTERVAL) flushNodes();
+        if (control.isAborted()) return 0;
+
+        int empty = game.getEmptyCellCount();
+        if (detailed) stats.plyNodes[rootEmpty - empty]++;
+        if (empty == 0) {
+            if (detailed) countLeaf(rootEmpty - empty);
+            return 0;
+        }
+
+        int symmetry = game.getCanonicalTransform();
+        long key = game.symmetricHashes[symmetry] ^ modeKey;
+        int alphaOrig = alpha;
+        int hashMove = TranspositionTable.NO_MOVE;
+        if (detailed) stats.tableProbes++;
+        if (table.probe(key, entry)) {
+            if (detailed) stats.tableHits++;
+            hashMove = mapMove(BoardSymmetry.inverse(symmetry), entry.move);
+            if (entry.bound == TranspositionTable.EXACT) return entry.value;
+            if (entry.bound == TranspositionTable.LOWER) alpha = Math.max(alpha, entry.value);
+            else beta = Math.min(beta, entry.value);
+            if (alpha >= beta) return entry.value;
+        }
+
+        int[] moves = moveStack[empty];
+        int[] scores = scoreStack[empty];
+        int count = orderMoves(moves, scores, hashMove);
+
+        int best = -INFINITY;
+        int bestMove = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            pickNext(moves, scores, count, i);
+            int move = moves[i];
+            int value = moveValue(move, alpha, beta);
+            if (control.isAborted()) return 0;
+
+            if (value > best) {
+                best = value;
+                bestMove = move;
+            }
+            alpha = Math.max(alpha, value);
+            if (alpha >= beta) {
+                stats.cutoffs++;
+                if (i == 0) stats.firstMoveCutoffs++;
+                if (detailed) stats.plyCutoffs[rootEmpty - empty]++;
+                break;
+            }
+        }
+
+        int bound = best <= alphaOrig ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        table.store(key, empty, bound, best, mapMove(symmetry, bestMove));
+        return best;
+    }
+
+    // Outcome of playing move for the side to move
+    private int moveValue(int move, int alpha, int beta) {
+        int row = (move >>> 1) / boardSize;
+        int col = (move >>> 1) % boardSize;
+        char letter = letterOf(move);
+        if (!general && game.countSOSCompletedBy(row, col, letter) > 0) { // first SOS wins
+            if (detailed) countLeaf(rootEmpty - game.getEmptyCellCount() + 1);
+            return 1;
+        }
+
+        int completed = game.makeMove(row, col, letter);
+        int value = completed > 0
+                ? completed + solve(alpha - completed, beta - completed)
+                : -solve(-beta, -alpha);
+        game.unmakeMove();
+        return value;
+    }
+
+    // Hash move, then moves that score the most, then the rest with those that set up
+    // the fewest SOS for the opponent first
+    private int orderMoves(int[] moves, int[] scores, int hashMove) {
+        int count = game.getBitBoard().generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            int row = (moves[i] >>> 1) / boardSize;
+            int col = (moves[i] >>> 1) % boardSize;
+            char letter = letterOf(moves[i]);
+            int completed = game.countSOSCompletedBy(row, col, letter);
+            if (moves[i] == hashMove) scores[i] = Integer.MAX_VALUE;
+            else if (completed > 0) scores[i] = SCORES_SOS + completed;
+            else scores[i] = -game.countThreatsCreatedBy(row, col, letter);
+        }
+        return count;
+    }
+
+    private void countLeaf(int ply) {
+        stats.leaves++;
+        stats.plyLeaves[ply]++;
+    }
+
+    void flushNodes() {
+        control.addNodes(pendingNodes);
+        pendingNodes = 0;
+    }
+
+    private int mapMove(int symmetry, int move) {
+        return move == TranspositionTable.NO_MOVE ? move : BoardSymmetry.mapMove(symmetry, move, symmetryMaps);
+    }
+
+    private static char letterOf(int move) {
+        return (move & 1) == 0 ? 'S' : 'O';
+    }
+
+    private static void pickNext(int[] moves, int[] scores, int count, int i) {
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scores[j] > scores[best]) best = j;
+        }
+        if (best != i) {
+            int score = scores[i];
+            scores[i] = scores[best];
+            scores[best] = score;
+            int move = moves[i];
+            moves[i] = moves[best];
+            moves[best] = move;
+        }
+    }
+}
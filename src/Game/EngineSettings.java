@@ -0,0 +1,57 @@
+package Game;
+
+// ComputerPlayer settings shared by the headless tools; 0 keeps the engine default
+public class EngineSettings {
+    public int depth = 0;
+    public long timeBudgetMillis = 0;
+    public long nodeBudget = 0;
+    public int tableBits = 14;
+    public int endgameTableBits = 0;
+    public boolean moveOrdering = true;
+    public SOSGame.ComputerPlayer.Engine engine = SOSGame.ComputerPlayer.Engine.ALPHA_BETA;
+    public int mctsNodes = 0;
+    // Shared by every player configured from these settings; null leaves metrics off
+    public SearchMetrics metrics = null;
+
+    // Apply one "--option value" pair; false if the option is not an engine setting
+    public boolean parseOption(String option, String value) {
+        switch (option) {
+            case "--depth": depth = Integer.parseInt(value); return true;
+            case "--time-ms": timeBudgetMillis = Long.parseLong(value); return true;
+            case "--nodes": nodeBudget = Long.parseLong(value); return true;
+            case "--table-bits": tableBits = Integer.parseInt(value); return true;
+            case "--endgame-table-bits": endgameTableBits = Integer.parseInt(value); return true;
+            case "--ordering": moveOrdering = Boolean.parseBoolean(value); return true;
+            case "--engine": engine = SOSGame.ComputerPlayer.Engine.valueOf(value.toUpperCase().replace('-', '_')); return true;
+            case "--mcts-nodes": mctsNodes = Integer.parseInt(value); return true;
+            case "--metrics": metrics = Boolean.parseBoolean(value) ? new SearchMetrics() : null; return true;
+            default: return false;
+        }
+    }
+
+    public SOSGame.ComputerPlayer newPlayer(String name) {
+        SOSGame.ComputerPlayer player = new SOSGame.ComputerPlayer(name);
+        configure(player);
+        return player;
+    }
+
+    public void configure(SOSGame.ComputerPlayer player) {
+        player.setMaxDepth(depth);
+        player.setTimeBudget(timeBudgetMillis);
+        player.setNodeBudget(nodeBudget);
+        player.setTranspositionTable(tableBits, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        player.setEndgameTable(endgameTableBits);
+        player.setMoveOrdering(moveOrdering);
+        player.setEngine(engine);
+        if (mctsNodes > 0) player.setMctsNodeLimit(mctsNodes);
+        player.setMetrics(metrics);
+        player.setDetailedStats(metrics != null);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("engine=%s depth=%d time-ms=%d nodes=%d table-bits=%d endgame-table-bits=%d ordering=%b",
+                engine.name().toLowerCase().replace('_', '-'), depth, timeBudgetMillis, nodeBudget, tableBits,
+                endgameTableBits > 0 ? endgameTableBits : tableBits, moveOrdering);
+    }
+}
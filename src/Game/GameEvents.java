@@ -0,0 +1,75 @@
+package Game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder events for the game, the engine and the board view, all in the
+// "SOS" category. An event that no recording has enabled costs a field check, so a
+// continuous recording can stay on in production:
+//
+//   java -XX:StartFlightRecording:filename=sos.jfr,settings=profile -cp bin Game.SOS_GUI
+//   jfr print --categories SOS sos.jfr
+final class GameEvents {
+
+    private GameEvents() { }
+
+    @Name("sos.MoveApplied")
+    @Label("Move Applied")
+    @Category("SOS")
+    @StackTrace(false)
+    static class MoveApplied extends Event {
+        @Label("Player") String player;
+        @Label("Row") int row;
+        @Label("Column") int col;
+        @Label("Letter") char letter;
+        @Label("Empty Cells") int emptyCells;
+    }
+
+    @Name("sos.SOSScan")
+    @Label("SOS Scan")
+    @Description("Search for new SOS lines through the cells placed since the last check")
+    @Category("SOS")
+    @StackTrace(false)
+    static class SosScan extends Event {
+        @Label("Player") String player;
+        @Label("Cells Scanned") int cells;
+        @Label("Lines Found") int lines;
+    }
+
+    @Name("sos.SearchStarted")
+    @Label("Search Started")
+    @Category("SOS")
+    @StackTrace(false)
+    static class SearchStarted extends Event {
+        @Label("Player") String player;
+        @Label("Engine") String engine;
+        @Label("Board Size") int boardSize;
+        @Label("Empty Cells") int emptyCells;
+    }
+
+    // Spans the whole computeBestMove call
+    @Name("sos.Search")
+    @Label("Search")
+    @Category("SOS")
+    @StackTrace(false)
+    static class Search extends Event {
+        @Label("Player") String player;
+        @Label("Source") @Description("book, ponder, endgame, alpha-beta or mcts") String source;
+        @Label("Depth") int depth;
+        @Label("Nodes") long nodes;
+        @Label("Move") String move;
+        @Label("Cancelled") boolean cancelled;
+    }
+
+    @Name("sos.Repaint")
+    @Label("Board Repaint")
+    @Category("SOS")
+    static class Repaint extends Event {
+        @Label("Board Size") int boardSize;
+        @Label("Cells Painted") int cells;
+    }
+}
@@ -0,0 +1,200 @@
+package Game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+
+// Load generator for GameServer. Each connection is a virtual thread playing a human
+// Blue with random legal moves against the server's computer Red, game after game.
+// Latency is measured per PLAY request, i.e. the human move plus the computer reply.
+//
+//   java -cp bin Game.GameLoadClient --port 7070 --connections 2000 --games 5 --size 5
+public class GameLoadClient {
+
+    public static class Settings {
+        public String host = "localhost";
+        public int port = 7070;
+        public int connections = 100;
+        public int gamesPerConnection = 10;
+        public int boardSize = 5;
+        public String mode = "general";
+        public long seed = 1;
+
+        public static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--host": settings.host = value; break;
+                    case "--port": settings.port = Integer.parseInt(value); break;
+                    case "--connections": settings.connections = Integer.parseInt(value); break;
+                    case "--games": settings.gamesPerConnection = Integer.parseInt(value); break;
+                    case "--size": settings.boardSize = Integer.parseInt(value); break;
+                    case "--mode": settings.mode = value.toLowerCase(); break;
+                    case "--seed": settings.seed = Long.parseLong(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            return settings;
+        }
+    }
+
+    public static class Result {
+        public long games;
+        public long moves;
+        public long requests;
+        public long errors;
+        public long elapsedNanos;
+        // PLAY round-trip latencies in nanoseconds, sorted by finish()
+        long[] latencies = new long[0];
+        private int latencyCount = 0;
+
+        void recordLatency(long nanos) {
+            if (latencyCount == latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(64, latencyCount * 2));
+            }
+            latencies[latencyCount++] = nanos;
+        }
+
+        void add(Result other) {
+            games += other.games;
+            moves += other.moves;
+            requests += other.requests;
+            errors += other.errors;
+            for (int i = 0; i < other.latencyCount; i++) recordLatency(other.latencies[i]);
+        }
+
+        void finish() {
+            latencies = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(latencies);
+        }
+
+        public double movesPerSecond() {
+            return elapsedNanos == 0 ? 0 : moves / (elapsedNanos / 1e9);
+        }
+
+        // Latency at quantile q (0..1) in milliseconds
+        public double latencyMillis(double q) {
+            if (latencies.length == 0) return 0;
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(q * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+
+        public String report() {
+            return String.format("games=%d moves=%d requests=%d errors=%d elapsed=%.2fs%n"
+                            + "moves/sec=%.1f requests/sec=%.1f%n"
+                            + "move latency ms: p50=%.3f p99=%.3f max=%.3f%n",
+                    games, moves, requests, errors, elapsedNanos / 1e9,
+                    movesPerSecond(), elapsedNanos == 0 ? 0 : requests / (elapsedNanos / 1e9),
+                    latencyMillis(0.5), latencyMillis(0.99), latencyMillis(1.0));
+        }
+    }
+
+    private final Settings settings;
+
+    public GameLoadClient(Settings settings) {
+        this.settings = settings;
+    }
+
+    public Result run() throws InterruptedException {
+        Result total = new Result();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Result>> results = new ArrayList<>();
+            for (int i = 0; i < settings.connections; i++) {
+                long connectionSeed = settings.seed ^ (i * 0x9E3779B97F4A7C15L);
+                results.add(executor.submit(() -> playConnection(connectionSeed)));
+            }
+            for (Future<Result> result : results) {
+                total.add(result.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Connection failed", e.getCause());
+        }
+        total.elapsedNanos = System.nanoTime() - start;
+        total.finish();
+        return total;
+    }
+
+    private Result playConnection(long seed) throws IOException {
+        Result result = new Result();
+        Random random = new Random(seed);
+        try (Socket socket = new Socket(settings.host, settings.port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            socket.setTcpNoDelay(true);
+            for (int g = 0; g < settings.gamesPerConnection; g++) {
+                playGame(in, out, random, result);
+            }
+            out.println("QUIT");
+            out.flush();
+            in.readLine();
+        }
+        return result;
+    }
+
+    // Mirror the board from MOVED lines and answer every TURN Blue with a random empty cell
+    private void playGame(BufferedReader in, PrintWriter out, Random random, Result result) throws IOException {
+        int size = settings.boardSize;
+        boolean[] filled = new boolean[size * size];
+        int empty = size * size;
+
+        String reply = request(in, out, "NEW " + size + " " + settings.mode + " human computer", filled, result);
+        while (reply.startsWith("TURN")) {
+            int pick = random.nextInt(empty);
+            int cell = -1;
+            while (pick >= 0) {
+                if (!filled[++cell]) pick--;
+            }
+            char letter = random.nextBoolean() ? 'S' : 'O';
+
+            long sent = System.nanoTime();
+            reply = request(in, out, "PLAY " + cell / size + " " + cell % size + " " + letter, filled, result);
+            result.recordLatency(System.nanoTime() - sent);
+
+            empty = 0;
+            for (boolean f : filled) if (!f) empty++;
+        }
+        if (reply.startsWith("OVER")) result.games++;
+        else result.errors++;
+    }
+
+    // Send one command and read up to its terminating TURN, OVER or ERR line
+    private String request(BufferedReader in, PrintWriter out, String command, boolean[] filled, Result result) throws IOException {
+        out.println(command);
+        out.flush();
+        result.requests++;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("MOVED")) {
+                String[] parts = line.split(" ");
+                filled[Integer.parseInt(parts[2]) * settings.boardSize + Integer.parseInt(parts[3])] = true;
+                result.moves++;
+            } else {
+                return line;
+            }
+        }
+        throw new IOException("Server closed the connection");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Settings settings = Settings.parse(args);
+        System.out.printf("host=%s port=%d connections=%d games=%d size=%d mode=%s%n",
+                settings.host, settings.port, settings.connections, settings.gamesPerConnection,
+                settings.boardSize, settings.mode);
+        System.out.print(new GameLoadClient(settings).run().report());
+    }
+}
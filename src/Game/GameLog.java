@@ -0,0 +1,110 @@
+package Game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Append-only binary log of finished games. Each game is three big-endian ints,
+// MAGIC, the GameRecord header and the move count, followed by one int per move.
+// Games are copied into a direct buffer and reach the file channel in 64 KB writes,
+// so a log can be shared by many threads; call flush to make them durable sooner.
+// Logs are read back through a read-only memory mapping.
+//
+//   java -cp bin Game.GameLog games.sosr      replays every game and reports the rate
+public class GameLog implements AutoCloseable {
+
+    static final int MAGIC = 0x534F5347; // "SOSG"
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    public static final Path DEFAULT_FILE = Path.of(System.getProperty("sos.record.file", "games.sosr"));
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    // Opens file for appending, creating it if needed
+    public GameLog(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public synchronized void append(GameRecord record) throws IOException {
+        putInt(MAGIC);
+        putInt(record.getHeader());
+        putInt(record.getMoveCount());
+        int[] moves = record.getPackedMoves();
+        for (int i = 0; i < record.getMoveCount(); i++) putInt(moves[i]);
+    }
+
+    private void putInt(int value) throws IOException {
+        if (buffer.remaining() < Integer.BYTES) drain();
+        buffer.putInt(value);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    public synchronized void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Hand every game in file to action, in the order they were appended
+    public static void forEach(Path file, Consumer<GameRecord> action) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (in.size() > Integer.MAX_VALUE) throw new IOException("Game log too large to map: " + file);
+            IntBuffer ints = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size()).asIntBuffer();
+            while (ints.hasRemaining()) {
+                if (ints.remaining() < 3 || ints.get() != MAGIC) throw new IOException("Corrupt game log: " + file);
+                int header = ints.get();
+                int count = ints.get();
+                if (count < 0 || count > ints.remaining()) throw new IOException("Truncated game log: " + file);
+                int[] moves = new int[count];
+                ints.get(moves);
+                action.accept(new GameRecord(header, moves, count));
+            }
+        }
+    }
+
+    public static List<GameRecord> read(Path file) throws IOException {
+        List<GameRecord> records = new ArrayList<>();
+        forEach(file, records::add);
+        return records;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = args.length > 0 ? Path.of(args[0]) : DEFAULT_FILE;
+        List<GameRecord> records = read(file);
+        long moves = 0;
+        int blueWins = 0, redWins = 0;
+        long start = System.nanoTime();
+        for (GameRecord record : records) {
+            SOSGameBase game = record.replay();
+            moves += record.getMoveCount();
+            if ("Blue".equals(game.getWinner())) blueWins++;
+            else if ("Red".equals(game.getWinner())) redWins++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d moves replayed in %.3fs (%.0f moves/sec)%n",
+                records.size(), moves, seconds, moves / seconds);
+        System.out.printf("blue wins %d  red wins %d  other %d%n", blueWins, redWins, records.size() - blueWins - redWins);
+    }
+}
@@ -0,0 +1,91 @@
+package Game;
+
+import java.util.Arrays;
+
+// Every move of one game as packed ints, cheap enough to keep on the hot path.
+//   header - board size in the high 16 bits, then flags: general mode (4),
+//            blue is a computer (2), red is a computer (1)
+//   move   - row * size + col shifted left once, low bit 0 for S and 1 for O
+// Blue always moves first and the turn rules decide who made each later move, so
+// the moves alone replay the whole game. See GameLog for the file format.
+public class GameRecord {
+
+    static final int GENERAL = 4;
+    static final int BLUE_COMPUTER = 2;
+    static final int RED_COMPUTER = 1;
+
+    private final int header;
+    private int[] moves;
+    private int count = 0;
+
+    GameRecord(int header, int[] moves, int count) {
+        this.header = header;
+        this.moves = moves;
+        this.count = count;
+    }
+
+    // An empty record for game, which must not have been played yet
+    public static GameRecord of(SOSGameBase game) {
+        int header = game.getBoardSize() << 16
+                | (game.getGameMode().equals("general") ? GENERAL : 0)
+                | (game.getPlayer("Blue") instanceof SOSGame.ComputerPlayer ? BLUE_COMPUTER : 0)
+                | (game.getPlayer("Red") instanceof SOSGame.ComputerPlayer ? RED_COMPUTER : 0);
+        return new GameRecord(header, new int[Math.min(game.getBoardSize() * game.getBoardSize(), 64)], 0);
+    }
+
+    static int pack(int cell, char letter) {
+        return cell << 1 | (letter == 'O' ? 1 : 0);
+    }
+
+    void add(int row, int col, char letter) {
+        if (count == moves.length) moves = Arrays.copyOf(moves, count * 2);
+        moves[count++] = pack(row * getBoardSize() + col, letter);
+    }
+
+    // Forget the last move, after it was taken back
+    void removeLast() {
+        count--;
+    }
+
+    int getHeader() { return header; }
+    int[] getPackedMoves() { return moves; }
+
+    public int getBoardSize() { return header >>> 16; }
+    public String getGameMode() { return (header & GENERAL) != 0 ? "general" : "simple"; }
+    public boolean isComputer(String color) {
+        return (header & (color.equals("Blue") ? BLUE_COMPUTER : RED_COMPUTER)) != 0;
+    }
+    public int getMoveCount() { return count; }
+
+    public int getRow(int move) { return (moves[move] >>> 1) / getBoardSize(); }
+    public int getCol(int move) { return (moves[move] >>> 1) % getBoardSize(); }
+    public char getLetter(int move) { return (moves[move] & 1) == 0 ? 'S' : 'O'; }
+
+    // A new game with the recorded size, mode and player types, before any move
+    public SOSGameBase newGame() {
+        SOSGame.Player blue = isComputer("Blue") ? new SOSGame.ComputerPlayer("Blue") : new SOSGame.HumanPlayer("Blue");
+        SOSGame.Player red = isComputer("Red") ? new SOSGame.ComputerPlayer("Red") : new SOSGame.HumanPlayer("Red");
+        return (header & GENERAL) != 0
+                ? new GeneralSOSGame(getBoardSize(), blue, red)
+                : new SimpleSOSGame(getBoardSize(), blue, red);
+    }
+
+    // Rebuild the game after the first moveCount moves, made with makeMove so a
+    // replay can step back through them with unmakeMove
+    public SOSGameBase replay(int moveCount) {
+        SOSGameBase game = newGame();
+        int size = getBoardSize();
+        for (int i = 0; i < moveCount; i++) {
+            int cell = moves[i] >>> 1;
+            char letter = (moves[i] & 1) == 0 ? 'S' : 'O';
+            if (game.isGameOver() || !game.isValidMove(cell / size, cell % size, letter))
+                throw new IllegalStateException("Move " + i + " of the record cannot be played");
+            game.makeMove(cell / size, cell % size, letter);
+        }
+        return game;
+    }
+
+    public SOSGameBase replay() {
+        return replay(count);
+    }
+}
@@ -0,0 +1,269 @@
+package Game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hosts many games from one JVM over a line-based TCP protocol on localhost.
+// Every connection runs on its own virtual thread; computer searches run on a
+// bounded pool of platform threads so CPU-heavy work cannot starve connection I/O.
+//
+// One game per connection at a time. Commands:
+//   NEW <size> <simple|general> <human|computer> <human|computer>   (blue, then red)
+//   PLAY <row> <col> <S|O>       move for the human whose turn it is
+//   STATE                        -> STATE <size> <mode> <rows> <blue> <red> <turn|over>
+//                                   rows use '.' for empty cells and '/' between rows
+//   QUIT                         -> BYE
+// NEW and PLAY echo every applied move, including the computer replies that follow,
+// as MOVED <player> <row> <col> <letter> <newSOS>, and end with TURN <player> or
+// OVER <Blue|Red|draw> <blueScore> <redScore>. Errors are reported as ERR <reason>.
+//
+//   java -cp bin Game.GameServer --port 7070 --search-threads 8 --depth 3
+//   add --record games.sosr to append every finished game to a GameLog
+public class GameServer implements AutoCloseable {
+
+    public static class Settings {
+        public int port = 7070;
+        public int searchThreads = Runtime.getRuntime().availableProcessors();
+        public int maxBoardSize = 32;
+        public Path recordFile = null;
+        public EngineSettings engine = new EngineSettings();
+
+        public Settings() {
+            // Small tables: thousands of sessions each own their engines
+            engine.tableBits = 10;
+        }
+
+        public static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+                String value = args[i + 1];
+                if (settings.engine.parseOption(args[i], value)) continue;
+                switch (args[i]) {
+                    case "--port": settings.port = Integer.parseInt(value); break;
+                    case "--search-threads": settings.searchThreads = Integer.parseInt(value); break;
+                    case "--max-size": settings.maxBoardSize = Integer.parseInt(value); break;
+                    case "--record": settings.recordFile = Path.of(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            return settings;
+        }
+    }
+
+    private final Settings settings;
+    private final ExecutorService searchPool;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private ServerSocket serverSocket;
+    private GameLog log;
+
+    public GameServer(Settings settings) {
+        this.settings = settings;
+        this.searchPool = Executors.newFixedThreadPool(settings.searchThreads);
+    }
+
+    // Bind to localhost and start accepting; returns the bound port
+    public int start() throws IOException {
+        if (settings.recordFile != null) log = new GameLog(settings.recordFile);
+        serverSocket = new ServerSocket(settings.port, 4096, InetAddress.getLoopbackAddress());
+        Thread.ofPlatform().name("sos-accept").daemon().start(this::acceptLoop);
+        return serverSocket.getLocalPort();
+    }
+
+    public int getActiveSessions() { return activeSessions.get(); }
+
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) serverSocket.close();
+        connections.shutdownNow();
+        searchPool.shutdownNow();
+        if (log != null) log.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.submit(() -> serve(socket));
+            } catch (SocketException e) {
+                return; // closed
+            } catch (IOException e) {
+                System.err.println("Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        activeSessions.incrementAndGet();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            Session session = new Session(out);
+            String line;
+            while ((line = in.readLine()) != null) {
+                boolean open = session.handle(line.trim());
+                out.flush();
+                if (!open) break;
+            }
+        } catch (IOException e) {
+            // client went away
+        } finally {
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    private class Session {
+        private final PrintWriter out;
+        private SOSGameBase game;
+
+        Session(PrintWriter out) { this.out = out; }
+
+        // Returns false when the client quits
+        boolean handle(String line) {
+            String[] parts = line.split("\\s+");
+            try {
+                switch (parts[0].toUpperCase()) {
+                    case "NEW": newGame(parts); break;
+                    case "PLAY": play(parts); break;
+                    case "STATE": state(); break;
+                    case "QUIT":
+                        out.println("BYE");
+                        return false;
+                    default: out.println("ERR unknown command");
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                out.println("ERR malformed command");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                out.println("ERR server shutting down");
+                return false;
+            }
+            return true;
+        }
+
+        private void newGame(String[] parts) throws InterruptedException {
+            int size = Integer.parseInt(parts[1]);
+            String mode = parts[2].toLowerCase();
+            if (size < 3 || size > settings.maxBoardSize) {
+                out.println("ERR size must be between 3 and " + settings.maxBoardSize);
+                return;
+            }
+            if (!mode.equals("simple") && !mode.equals("general")) {
+                out.println("ERR mode must be simple or general");
+                return;
+            }
+
+            SOSGame.Player blue = newPlayer("Blue", parts[3]);
+            SOSGame.Player red = newPlayer("Red", parts[4]);
+            game = mode.equals("simple")
+                    ? new SimpleSOSGame(size, blue, red)
+                    : new GeneralSOSGame(size, blue, red);
+            if (log != null) game.startRecording();
+            playComputerTurns();
+            endOfTurn();
+        }
+
+        private SOSGame.Player newPlayer(String name, String type) {
+            return type.equalsIgnoreCase("computer") ? settings.engine.newPlayer(name) : new SOSGame.HumanPlayer(name);
+        }
+
+        private void play(String[] parts) throws InterruptedException {
+            if (game == null || game.isGameOver()) {
+                out.println("ERR no game in progress");
+                return;
+            }
+            if (game.getCurrentPlayer() instanceof SOSGame.ComputerPlayer) {
+                out.println("ERR not a human turn");
+                return;
+            }
+            int row = Integer.parseInt(parts[1]);
+            int col = Integer.parseInt(parts[2]);
+            char letter = Character.toUpperCase(parts[3].charAt(0));
+            if (!game.isValidMove(row, col, letter)) {
+                out.println("ERR invalid move");
+                return;
+            }
+
+            applyAndEcho(row, col, letter);
+            playComputerTurns();
+            endOfTurn();
+        }
+
+        // The session's virtual thread parks while the bounded pool runs the search
+        private void playComputerTurns() throws InterruptedException {
+            while (!game.isGameOver() && game.getCurrentPlayer() instanceof SOSGame.ComputerPlayer) {
+                SOSGame.ComputerPlayer computer = (SOSGame.ComputerPlayer) game.getCurrentPlayer();
+                SOSGame.ComputerPlayer.Move move;
+                try {
+                    move = searchPool.submit(() -> computer.computeBestMove(game)).get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search failed", e.getCause());
+                }
+                applyAndEcho(move.row, move.col, move.letter);
+            }
+        }
+
+        private void applyAndEcho(int row, int col, char letter) {
+            String player = game.getCurrentPlayer().getName();
+            int newSOS = game.applyMove(row, col, letter);
+            out.println("MOVED " + player + " " + row + " " + col + " " + letter + " " + newSOS);
+        }
+
+        private void endOfTurn() {
+            if (game.isGameOver()) {
+                String result = game.getWinner() != null ? game.getWinner() : "draw";
+                out.println("OVER " + result + " " + game.getBlueScore() + " " + game.getRedScore());
+                if (log != null) record();
+            } else {
+                out.println("TURN " + game.getCurrentPlayer().getName());
+            }
+        }
+
+        private void record() {
+            try {
+                log.append(game.getRecord());
+            } catch (IOException e) {
+                System.err.println("Could not record game: " + e.getMessage());
+            }
+        }
+
+        private void state() {
+            if (game == null) {
+                out.println("ERR no game");
+                return;
+            }
+            StringBuilder rows = new StringBuilder();
+            char[][] board = game.getBoard();
+            for (int r = 0; r < board.length; r++) {
+                if (r > 0) rows.append('/');
+                for (char cell : board[r]) rows.append(cell == ' ' ? '.' : cell);
+            }
+            String turn = game.isGameOver() ? "over" : game.getCurrentPlayer().getName();
+            out.println("STATE " + game.getBoardSize() + " " + game.getGameMode() + " " + rows + " "
+                    + game.getBlueScore() + " " + game.getRedScore() + " " + turn);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Settings settings = Settings.parse(args);
+        GameServer server = new GameServer(settings);
+        int port = server.start();
+        System.out.printf("SOS server on localhost:%d search-threads=%d %s%n", port, settings.searchThreads, settings.engine);
+        Thread.currentThread().join();
+    }
+}
@@ -6,6 +6,17 @@ public class GeneralSOSGame extends SOSGameBase {
         super(boardSize, p1, p2, "general");
     }
 
+    public GeneralSOSGame(int boardSize, SOSGame.Player p1, SOSGame.Player p2, Storage storage) {
+        super(boardSize, p1, p2, "general", storage);
+    }
+
+    @Override
+    public GeneralSOSGame copy() {
+        GeneralSOSGame copy = new GeneralSOSGame(boardSize, bluePlayer, redPlayer, getStorage());
+        copy.copyStateFrom(this);
+        return copy;
+    }
+
     @Override
     public int checkForNewSOS() {
         int newLines = countNewSOS(currentPlayer);
@@ -40,11 +51,4 @@ public class GeneralSOSGame extends SOSGameBase {
 
     @Override
     public int getRedScore() { return redScore; }
-
-    private boolean isBoardFull() {
-        for (int i = 0; i < boardSize; i++)
-            for (int j = 0; j < boardSize; j++)
-                if (board[i][j] == EMPTY) return false;
-        return true;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,408 @@
+package Game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import Game.SOSGame.ComputerPlayer.Move;
+
+// Monte Carlo tree search, the alternative to alpha-beta for boards where a few plies
+// of evaluatePosition say little. All threads share one tree: a descent adds a virtual
+// loss to every node it passes so that other threads try other lines, and takes it
+// back when the playout result is backed up.
+//
+// Nodes live in parallel arrays allocated once, so the tree cannot outgrow its
+// capacity; when it is full, leaves are played out without being expanded. Each
+// thread plays on a private byte board and clears its moves afterwards, so
+// iterations allocate nothing and never touch the caller's game.
+class MctsSearch {
+
+    private static final int VIRTUAL_LOSS = 3;
+    private static final double EXPLORATION = 0.7;
+    private static final double UNVISITED = 1e6;
+    // Random cells a playout tries before accepting a move that sets up an SOS
+    private static final int SAFE_ATTEMPTS = 4;
+
+    private static final int UNEXPANDED = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+    private static final int NO_ROOM = 3;
+
+    private static final int ROOT = 0;
+    private static final byte BLUE = 0;
+    private static final byte RED = 1;
+    private static final byte DRAW = -1;
+
+    private final int capacity;
+    // Move into the node and the colour that made it
+    private final int[] moves;
+    private final byte[] movers;
+    // Children are a contiguous block, valid once the state is EXPANDED
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final AtomicIntegerArray states;
+    // Visits include virtual losses in flight; results are in half points for the
+    // node's mover: 2 a win, 1 a draw, 0 a loss
+    private final AtomicIntegerArray visits;
+    private final AtomicLongArray halfPoints;
+    private final AtomicInteger used = new AtomicInteger();
+
+    private boolean general;
+    private boolean blueAtRoot;
+
+    MctsSearch(int capacity) {
+        this.capacity = capacity;
+        this.moves = new int[capacity];
+        this.movers = new byte[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new int[capacity];
+        this.states = new AtomicIntegerArray(capacity);
+        this.visits = new AtomicIntegerArray(capacity);
+        this.halfPoints = new AtomicLongArray(capacity);
+    }
+
+    // Start a new tree for game; nodes of the previous one are reused as they are allocated
+    void reset(SOSGameBase game) {
+        general = game.getGameMode().equals("general");
+        blueAtRoot = game.getCurrentPlayer().getName().equals("Blue");
+        used.set(1);
+        initNode(ROOT, TranspositionTable.NO_MOVE, blueAtRoot ? RED : BLUE);
+    }
+
+    private void initNode(int node, int move, byte mover) {
+        moves[node] = move;
+        movers[node] = mover;
+        visits.set(node, 0);
+        halfPoints.set(node, 0);
+        states.set(node, UNEXPANDED);
+    }
+
+    int getNodeCount() { return Math.min(used.get(), capacity); }
+
+    // Most visited root move, or null before the root has been expanded
+    Move bestMove(int boardSize) {
+        if (states.get(ROOT) != EXPANDED) return null;
+        int best = -1;
+        for (int c = firstChild[ROOT]; c < firstChild[ROOT] + childCount[ROOT]; c++) {
+            if (best < 0 || visits.get(c) > visits.get(best)) best = c;
+        }
+        int cell = moves[best] >>> 1;
+        return new Move(cell / boardSize, cell % boardSize, (moves[best] & 1) == 0 ? 'S' : 'O');
+    }
+
+    // Playouts run by one thread on a private byte board: the root position with a
+    // two-cell border of WALL around it, so SOS checks need no bounds tests
+    class Worker {
+        private static final byte EMPTY = 0;
+        private static final byte S = 1;
+        private static final byte O = 2;
+        private static final byte WALL = 3;
+
+        private final int boardSize;
+        private final int width;
+        private final int[] directions;
+        private final byte[] board;
+        private final SplittableRandom random;
+        private final int rootBlueScore;
+        private final int rootRedScore;
+        private final int rootEmpty;
+
+        private final int[] path;
+        private final int[] played;
+        private final int[] cells;
+        private final int[] candidates;
+        private final int[] cellIndex;
+        // Cells that may complete an SOS, checked before any random move
+        private final int[] hot;
+        private final int[] rootHot;
+
+        private int pathLength;
+        private int playedCount;
+        private int cellCount;
+        private int hotCount;
+        private int empty;
+        private int blueScore;
+        private int redScore;
+        private boolean blueToMove;
+        private byte winner;
+        private boolean over;
+        int maxDepth;
+
+        Worker(SOSGameBase game, long seed) {
+            this.boardSize = game.getBoardSize();
+            this.width = boardSize + 4;
+            this.directions = new int[] {1, width, width + 1, width - 1};
+            this.board = new byte[width * width];
+            Arrays.fill(board, WALL);
+            char[][] letters = game.getBoard();
+            for (int r = 0; r < boardSize; r++) {
+                for (int c = 0; c < boardSize; c++) {
+                    char letter = letters[r][c];
+                    board[pad(r * boardSize + c)] = letter == 'S' ? S : letter == 'O' ? O : EMPTY;
+                }
+            }
+            this.random = new SplittableRandom(seed);
+            this.rootBlueScore = game.getBlueScore();
+            this.rootRedScore = game.getRedScore();
+            this.rootEmpty = game.getEmptyCellCount();
+            this.path = new int[rootEmpty + 1];
+            this.played = new int[rootEmpty];
+            this.cells = new int[Math.max(rootEmpty, 1)];
+            this.cellIndex = new int[board.length];
+            this.candidates = new int[2 * rootEmpty];
+            this.hot = new int[16 * rootEmpty + 16];
+
+            int open = 0;
+            int[] completing = new int[rootEmpty];
+            for (int cell = 0; cell < boardSize * boardSize; cell++) {
+                int p = pad(cell);
+                if (board[p] == EMPTY && (completed(p, S) > 0 || completed(p, O) > 0)) completing[open++] = p;
+            }
+            this.rootHot = Arrays.copyOf(completing, open);
+        }
+
+        private int pad(int cell) {
+            return (cell / boardSize + 2) * width + cell % boardSize + 2;
+        }
+
+        // Run iterations until the control stops the search, at least one so the
+        // root is expanded
+        void run(SearchControl control) {
+            int pending = 0;
+            do {
+                iterate();
+                if (++pending == 16) {
+                    control.addNodes(pending);
+                    pending = 0;
+                }
+            } while (!control.isAborted());
+            control.addNodes(pending);
+        }
+
+        void iterate() {
+            blueScore = rootBlueScore;
+            redScore = rootRedScore;
+            blueToMove = blueAtRoot;
+            empty = rootEmpty;
+            over = false;
+            pathLength = 0;
+            playedCount = 0;
+
+            int node = ROOT;
+            visit(node);
+            while (!over) {
+                int state = states.get(node);
+                // A leaf is expanded on its second visit; the first only plays it out
+                if (state == UNEXPANDED && (node == ROOT || visits.get(node) > VIRTUAL_LOSS)) {
+                    state = expand(node);
+                }
+                if (state != EXPANDED) break;
+                node = select(node);
+                visit(node);
+                play(pad(moves[node] >>> 1), (moves[node] & 1) == 0 ? S : O);
+            }
+            if (pathLength > maxDepth) maxDepth = pathLength;
+
+            if (!over) playout();
+            backUp();
+            for (int i = 0; i < playedCount; i++) board[played[i]] = EMPTY;
+        }
+
+        private void visit(int node) {
+            path[pathLength++] = node;
+            visits.addAndGet(node, VIRTUAL_LOSS);
+        }
+
+        // Returns the node's state afterwards; only one thread expands a node. Only the
+        // best class of move gets a child: those completing an SOS if there are any,
+        // else those that set up none for the opponent, else all. With every move a
+        // child, a gift to the opponent looks good for hundreds of visits, until the
+        // opponent's few replies that take it have been found among all the others.
+        private int expand(int node) {
+            if (!states.compareAndSet(node, UNEXPANDED, EXPANDING)) return states.get(node);
+            int count = 0;
+            int bestClass = 0;
+            for (int cell = 0; cell < boardSize * boardSize; cell++) {
+                int p = pad(cell);
+                if (board[p] != EMPTY) continue;
+                for (byte letter = S; letter <= O; letter++) {
+                    int moveClass = completed(p, letter) > 0 ? 2 : threats(p, letter, false) == 0 ? 1 : 0;
+                    if (moveClass < bestClass) continue;
+                    if (moveClass > bestClass) {
+                        bestClass = moveClass;
+                        count = 0;
+                    }
+                    candidates[count++] = cell << 1 | (letter - 1);
+                }
+            }
+
+            int first = used.get() + count > capacity ? capacity : used.getAndAdd(count);
+            if (count == 0 || first + count > capacity) {
+                states.set(node, NO_ROOM);
+                return NO_ROOM;
+            }
+            byte mover = blueToMove ? BLUE : RED;
+            for (int i = 0; i < count; i++) initNode(first + i, candidates[i], mover);
+            firstChild[node] = first;
+            childCount[node] = count;
+            states.set(node, EXPANDED);
+            return EXPANDED;
+        }
+
+        // UCT from the point of view of the side to move; unvisited children first
+        private int select(int node) {
+            int first = firstChild[node];
+            int end = first + childCount[node];
+            double logParent = Math.log(Math.max(1, visits.get(node)));
+            int best = first;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int c = first; c < end; c++) {
+                int n = visits.get(c);
+                double score = n == 0
+                        ? UNVISITED + random.nextDouble()
+                        : halfPoints.get(c) / (2.0 * n) + EXPLORATION * Math.sqrt(logParent / n);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        // Number of SOS that letter on the empty padded cell p would complete
+        private int completed(int p, byte letter) {
+            int count = 0;
+            for (int d : directions) {
+                if (letter == O) {
+                    if (board[p - d] == S && board[p + d] == S) count++;
+                } else {
+                    if (board[p + d] == O && board[p + 2 * d] == S) count++;
+                    if (board[p - d] == O && board[p - 2 * d] == S) count++;
+                }
+            }
+            return count;
+        }
+
+        private void play(int p, byte letter) {
+            int count = completed(p, letter);
+            board[p] = letter;
+            played[playedCount++] = p;
+            empty--;
+
+            if (count > 0 && !general) {
+                over = true;
+                winner = blueToMove ? BLUE : RED;
+                return;
+            }
+            if (blueToMove) blueScore += count;
+            else redScore += count;
+            if (empty == 0) {
+                over = true;
+                winner = blueScore > redScore ? BLUE : redScore > blueScore ? RED : DRAW;
+                return;
+            }
+            if (count == 0) blueToMove = !blueToMove;
+        }
+
+        // Informed random playout to the end of the game. An SOS left open by earlier
+        // moves is always taken; otherwise a random cell gets a letter that leaves the
+        // opponent no SOS, trying a few cells before accepting one that does.
+        private void playout() {
+            cellCount = 0;
+            for (int r = 0; r < boardSize; r++) {
+                for (int p = (r + 2) * width + 2, end = p + boardSize; p < end; p++) {
+                    if (board[p] != EMPTY) continue;
+                    cellIndex[p] = cellCount;
+                    cells[cellCount++] = p;
+                }
+            }
+            System.arraycopy(rootHot, 0, hot, 0, rootHot.length);
+            hotCount = rootHot.length;
+            for (int i = 0; i < playedCount; i++) threats(played[i], board[played[i]], true);
+
+            while (!over) {
+                int p = takeHotCell();
+                byte letter;
+                if (p >= 0) {
+                    letter = completed(p, S) >= completed(p, O) ? S : O;
+                } else {
+                    p = cells[random.nextInt(cellCount)];
+                    letter = random.nextBoolean() ? S : O;
+                    for (int attempt = 0; attempt < SAFE_ATTEMPTS; attempt++) {
+                        int candidate = attempt == 0 ? p : cells[random.nextInt(cellCount)];
+                        byte first = random.nextBoolean() ? S : O;
+                        byte other = first == S ? O : S;
+                        if (threats(candidate, first, false) == 0) {
+                            p = candidate;
+                            letter = first;
+                            break;
+                        }
+                        if (threats(candidate, other, false) == 0) {
+                            p = candidate;
+                            letter = other;
+                            break;
+                        }
+                    }
+                }
+
+                int last = cells[--cellCount];
+                cells[cellIndex[p]] = last;
+                cellIndex[last] = cellIndex[p];
+                play(p, letter);
+                if (!over) threats(p, letter, true);
+            }
+        }
+
+        // Next empty cell on the hot stack that completes an SOS, or -1
+        private int takeHotCell() {
+            while (hotCount > 0) {
+                int p = hot[--hotCount];
+                if (board[p] == EMPTY && (completed(p, S) > 0 || completed(p, O) > 0)) return p;
+            }
+            return -1;
+        }
+
+        // Windows through p that letter there leaves one letter short of an SOS; with
+        // push, their empty cells go on the hot stack
+        private int threats(int p, byte letter, boolean push) {
+            int count = 0;
+            for (int d : directions) {
+                if (letter == S) {
+                    count += threat(p + d, p + 2 * d, push);
+                    count += threat(p - d, p - 2 * d, push);
+                } else {
+                    count += openEnd(p - d, p + d, push) + openEnd(p + d, p - d, push);
+                }
+            }
+            return count;
+        }
+
+        // S at one end with the middle and far cells given
+        private int threat(int middle, int far, boolean push) {
+            if (board[middle] == O && board[far] == EMPTY) return hit(far, push);
+            if (board[middle] == EMPTY && board[far] == S) return hit(middle, push);
+            return 0;
+        }
+
+        // O in the middle with one end S and the other empty
+        private int openEnd(int end, int open, boolean push) {
+            return board[end] == S && board[open] == EMPTY ? hit(open, push) : 0;
+        }
+
+        private int hit(int p, boolean push) {
+            if (push && hotCount < hot.length) hot[hotCount++] = p;
+            return 1;
+        }
+
+        private void backUp() {
+            for (int i = 0; i < pathLength; i++) {
+                int node = path[i];
+                int points = winner == DRAW ? 1 : winner == movers[node] ? 2 : 0;
+                halfPoints.addAndGet(node, points);
+                visits.addAndGet(node, 1 - VIRTUAL_LOSS);
+            }
+        }
+    }
+}
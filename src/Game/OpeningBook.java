@@ -0,0 +1,118 @@
+package Game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Perfect-play lookups in a file written by OpeningBookSolver. The file is a 16-byte
+// header (magic, version, board size, mode: 0 simple / 1 general, as big-endian ints)
+// followed by one value byte per base-3 board index. Files are memory-mapped read-only
+// once per JVM and shared by every player.
+public class OpeningBook {
+
+    static final int MAGIC = 0x534F5342; // "SOSB"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    public static final Path DEFAULT_DIRECTORY = Path.of(System.getProperty("sos.book.dir", "book"));
+
+    private static final Map<Path, Optional<OpeningBook>> OPEN = new ConcurrentHashMap<>();
+
+    private final int boardSize;
+    private final boolean general;
+    private final ByteBuffer values;
+
+    private OpeningBook(int boardSize, boolean general, ByteBuffer values) {
+        this.boardSize = boardSize;
+        this.general = general;
+        this.values = values;
+    }
+
+    static String fileName(int boardSize, String mode) {
+        return "sos-" + boardSize + "-" + mode + ".book";
+    }
+
+    // The book for the game's size and mode in directory, or null if there is none
+    public static OpeningBook forGame(Path directory, SOSGameBase game) {
+        if (directory == null || game.getBoardSize() > OpeningBookSolver.MAX_SIZE) return null;
+        Path file = directory.resolve(fileName(game.getBoardSize(), game.getGameMode())).toAbsolutePath();
+        return OPEN.computeIfAbsent(file, OpeningBook::map).orElse(null);
+    }
+
+    private static Optional<OpeningBook> map(Path file) {
+        if (!Files.isRegularFile(file)) return Optional.empty();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+                throw new IOException("Not an SOS opening book: " + file);
+            int boardSize = buffer.getInt(8);
+            long expected = HEADER_BYTES + (long) Math.pow(3, boardSize * boardSize);
+            if (channel.size() != expected)
+                throw new IOException("Truncated SOS opening book: " + file);
+            return Optional.of(new OpeningBook(boardSize, buffer.getInt(12) == 1, buffer));
+        } catch (IOException e) {
+            System.err.println("Ignoring opening book: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Value of the board for the side to move; see OpeningBookSolver
+    public int value(SOSGameBase game) {
+        return values.get(HEADER_BYTES + index(game.getBoard()));
+    }
+
+    // A best move for the side to move, ties broken by random
+    public SOSGame.ComputerPlayer.Move bestMove(SOSGameBase game, Random random) {
+        char[][] board = game.getBoard();
+        int index = index(board);
+        int power = 1;
+        int best = Integer.MIN_VALUE;
+        int ties = 0;
+        SOSGame.ComputerPlayer.Move bestMove = null;
+
+        for (int r = 0; r < boardSize; r++) {
+            for (int c = 0; c < boardSize; c++, power *= 3) {
+                if (board[r][c] != ' ') continue;
+                for (int digit = 1; digit <= 2; digit++) {
+                    char letter = digit == 1 ? 'S' : 'O';
+                    int completed = game.countSOSCompletedBy(r, c, letter);
+                    int value;
+                    if (!general && completed > 0) {
+                        value = 1;
+                    } else {
+                        int child = values.get(HEADER_BYTES + index + digit * power);
+                        value = completed > 0 ? completed + child : -child;
+                    }
+
+                    if (value > best) {
+                        best = value;
+                        ties = 1;
+                        bestMove = new SOSGame.ComputerPlayer.Move(r, c, letter);
+                    } else if (value == best && random.nextInt(++ties) == 0) {
+                        bestMove = new SOSGame.ComputerPlayer.Move(r, c, letter);
+                    }
+                }
+            }
+        }
+        return bestMove;
+    }
+
+    private int index(char[][] board) {
+        int index = 0;
+        for (int r = boardSize - 1; r >= 0; r--) {
+            for (int c = boardSize - 1; c >= 0; c--) {
+                char letter = board[r][c];
+                index = index * 3 + (letter == 'S' ? 1 : letter == 'O' ? 2 : 0);
+            }
+        }
+        return index;
+    }
+}
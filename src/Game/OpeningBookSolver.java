@@ -0,0 +1,161 @@
+package Game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Offline solver for boards small enough to enumerate. Every board of size n is
+// indexed as a base-3 number (empty 0, S 1, O 2 per cell, cell 0 least significant)
+// and given one signed byte, the value for the side to move:
+//   general mode - the best score difference (own minus opponent's) still to be made
+//   simple mode  - 1 win, 0 draw, -1 loss; boards that already hold an SOS are unused
+// The rules are symmetric, so neither the scores so far nor the colour to move change
+// the value. See OpeningBook for the file header and the lookup.
+//
+//   java -cp bin Game.OpeningBookSolver --size 4 --mode general --dir book
+public class OpeningBookSolver {
+
+    // Largest size whose 3^(n*n) table fits in an array
+    public static final int MAX_SIZE = 4;
+
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+    private static final byte S = 1;
+    private static final byte O = 2;
+
+    private final int boardSize;
+    private final int cells;
+    private final boolean general;
+    private final int[] powers;
+    private final byte[] board;
+    private final byte[] values;
+
+    // For each cell, the (first, middle, last) cells of every line through it, flattened
+    private final int[][] lines;
+
+    public OpeningBookSolver(int boardSize, String mode) {
+        if (boardSize < 3 || boardSize > MAX_SIZE)
+            throw new IllegalArgumentException("Board size must be between 3 and " + MAX_SIZE);
+        this.boardSize = boardSize;
+        this.cells = boardSize * boardSize;
+        this.general = mode.equals("general");
+        this.powers = new int[cells + 1];
+        powers[0] = 1;
+        for (int i = 1; i <= cells; i++) powers[i] = powers[i - 1] * 3;
+        this.board = new byte[cells];
+        this.values = new byte[powers[cells]];
+        this.lines = buildLines();
+    }
+
+    // Value of every board, indexed as above
+    public byte[] solve() {
+        Arrays.fill(values, UNKNOWN);
+        solve(0, cells);
+        return values;
+    }
+
+    private int solve(int index, int empty) {
+        byte known = values[index];
+        if (known != UNKNOWN) return known;
+        if (empty == 0) {
+            values[index] = 0;
+            return 0;
+        }
+
+        int best = Integer.MIN_VALUE;
+        search:
+        for (int cell = 0; cell < cells; cell++) {
+            if (board[cell] != 0) continue;
+            for (byte letter = S; letter <= O; letter++) {
+                int completed = countCompleted(cell, letter);
+                int value;
+                if (!general && completed > 0) {
+                    value = 1;
+                } else {
+                    board[cell] = letter;
+                    int child = solve(index + letter * powers[cell], empty - 1);
+                    board[cell] = 0;
+                    // A general-mode SOS keeps the turn
+                    value = completed > 0 ? completed + child : -child;
+                }
+                if (value > best) {
+                    best = value;
+                    if (!general && best == 1) break search;
+                }
+            }
+        }
+        values[index] = (byte) best;
+        return best;
+    }
+
+    private int countCompleted(int cell, byte letter) {
+        int count = 0;
+        int[] through = lines[cell];
+        for (int i = 0; i < through.length; i += 3) {
+            byte first = through[i] == cell ? letter : board[through[i]];
+            byte middle = through[i + 1] == cell ? letter : board[through[i + 1]];
+            byte last = through[i + 2] == cell ? letter : board[through[i + 2]];
+            if (first == S && middle == O && last == S) count++;
+        }
+        return count;
+    }
+
+    private int[][] buildLines() {
+        int[][][] byCell = new int[cells][][];
+        int[] counts = new int[cells];
+        for (int i = 0; i < cells; i++) byCell[i] = new int[12][];
+
+        for (int r = 0; r < boardSize; r++) {
+            for (int c = 0; c < boardSize; c++) {
+                for (int[] d : SOSGameBase.DIRS) {
+                    int r3 = r + 2 * d[0];
+                    int c3 = c + 2 * d[1];
+                    if (r3 < 0 || r3 >= boardSize || c3 < 0 || c3 >= boardSize) continue;
+                    int[] line = {r * boardSize + c, (r + d[0]) * boardSize + c + d[1], r3 * boardSize + c3};
+                    for (int cell : line) byCell[cell][counts[cell]++] = line;
+                }
+            }
+        }
+        int[][] result = new int[cells][];
+        for (int i = 0; i < cells; i++) result[i] = flatten(byCell[i], counts[i]);
+        return result;
+    }
+
+    private static int[] flatten(int[][] lines, int count) {
+        return Arrays.stream(lines, 0, count).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    // Solve and write the book file into directory
+    public Path write(Path directory) throws IOException {
+        byte[] solved = solve();
+        Files.createDirectories(directory);
+        Path file = directory.resolve(OpeningBook.fileName(boardSize, general ? "general" : "simple"));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(boardSize);
+            out.writeInt(general ? 1 : 0);
+            out.write(solved);
+        }
+        return file;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = 3;
+        String mode = "general";
+        Path directory = OpeningBook.DEFAULT_DIRECTORY;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--size": size = Integer.parseInt(args[i + 1]); break;
+                case "--mode": mode = args[i + 1].toLowerCase(); break;
+                case "--dir": directory = Path.of(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        Path file = new OpeningBookSolver(size, mode).write(directory);
+        System.out.printf("wrote %s (%d bytes) in %.1fs%n", file, Files.size(file), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,146 @@
+package Game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import Game.SOSGame.ComputerPlayer.Move;
+
+// Searches on the opponent's time. While a human thinks, one background thread
+// plays each likely human move on a private copy of the game and searches the
+// computer's reply. When the human moves, a finished (or almost finished) reply
+// for that position is handed over and everything else is dropped.
+class PonderSession {
+
+    static class Result {
+        final Move move;
+        final SearchStats stats;
+
+        Result(Move move, SearchStats stats) {
+            this.move = move;
+            this.stats = stats;
+        }
+    }
+
+    // Human moves searched per turn; a prediction further down the list is rarely
+    // reached before the human moves
+    private static final int MAX_PREDICTIONS = 32;
+
+    private final SOSGame.ComputerPlayer computer;
+    private final SOSGameBase root;
+    private final Random random;
+    private final Map<Long, Result> replies = new ConcurrentHashMap<>();
+    private final Thread thread;
+
+    private volatile boolean stopped = false;
+    private volatile long searchingKey;
+    private volatile SearchControl searching;
+
+    // game must be the position with the human to move; it is copied before returning
+    PonderSession(SOSGame.ComputerPlayer computer, SOSGameBase game, long seed) {
+        this.computer = computer;
+        this.root = game.searchCopy();
+        this.random = new Random(seed);
+        this.thread = Thread.ofPlatform().name("sos-ponder").daemon().unstarted(this::run);
+    }
+
+    void start() { thread.start(); }
+
+    // Key of a position with the computer to move
+    static long key(SOSGameBase game) {
+        return game.getHash() ^ Zobrist.scoreDifference(game.getBlueScore() - game.getRedScore());
+    }
+
+    boolean hasReply(SOSGameBase game) {
+        return replies.containsKey(key(game));
+    }
+
+    // Stop pondering and return the reply for game, waiting only if that very position
+    // is being searched right now; null if it was not predicted
+    Result take(SOSGameBase game) {
+        long key = key(game);
+        stopped = true;
+        if (!replies.containsKey(key) && searchingKey == key) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            stop();
+        }
+        return replies.get(key);
+    }
+
+    void stop() {
+        stopped = true;
+        SearchControl control = searching;
+        if (control != null) control.cancel();
+    }
+
+    private void run() {
+        // Each prediction is played on the root and taken back, rather than copying it
+        for (Move predicted : predictedMoves()) {
+            root.makeMove(predicted.row, predicted.col, predicted.letter);
+            try {
+                if (root.isGameOver() || root.getCurrentPlayer() != computer) continue;
+                // Left to the endgame solver, whose exact move a heuristic reply must not replace
+                if (computer.solvesExactly(root)) continue;
+
+                SearchControl control = computer.newSearchControl();
+                searching = control;
+                searchingKey = key(root);
+                if (stopped) return;
+
+                SearchStats stats = computer.newSearchStats(root);
+                Move reply = computer.search(root, control, 1, random, null, stats);
+                if (control.isCancelled()) return;
+                replies.put(searchingKey, new Result(reply, stats));
+            } finally {
+                root.unmakeMove();
+            }
+        }
+    }
+
+    // The best MAX_PREDICTIONS moves that pass the turn to the computer, the ones
+    // leaving the fewest SOS threats first: a human is most likely to avoid setting one
+    // up. Scores go into int arrays kept in order, so a big board costs one pass.
+    private List<Move> predictedMoves() {
+        int size = root.getBoardSize();
+        int[] candidates = new int[2 * size * size];
+        int count = root.getBitBoard().generateMoves(candidates);
+        int[] best = new int[MAX_PREDICTIONS];
+        int[] scores = new int[MAX_PREDICTIONS];
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int cell = candidates[i] >>> 1;
+            int row = cell / size;
+            int col = cell % size;
+            char letter = (candidates[i] & 1) == 0 ? 'S' : 'O';
+            if (root.countSOSCompletedBy(row, col, letter) > 0) continue;
+            root.makeMove(row, col, letter);
+            int score = SOSGame.ComputerPlayer.evaluatePosition(root);
+            root.unmakeMove();
+
+            // Equal scores keep board order
+            if (kept == MAX_PREDICTIONS && score >= scores[kept - 1]) continue;
+            int j = kept < MAX_PREDICTIONS ? kept++ : kept - 1;
+            while (j > 0 && scores[j - 1] > score) {
+                best[j] = best[j - 1];
+                scores[j] = scores[j - 1];
+                j--;
+            }
+            best[j] = candidates[i];
+            scores[j] = score;
+        }
+
+        List<Move> moves = new ArrayList<>(kept);
+        for (int i = 0; i < kept; i++) {
+            int cell = best[i] >>> 1;
+            moves.add(new Move(cell / size, cell % size, (best[i] & 1) == 0 ? 'S' : 'O'));
+        }
+        return moves;
+    }
+}
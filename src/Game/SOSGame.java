@@ -1,8 +1,14 @@
 package Game;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SOSGame {
 
@@ -31,185 +37,605 @@ public class SOSGame {
 
         @Override
         public boolean makeMove(SOSGameBase game, int row, int col, char letter) {
-            if (row < 0 || row >= game.getBoardSize() || col < 0 || col >= game.getBoardSize())
-                return false;
-            if (game.getBoard()[row][col] != ' ')
-                return false;
-            if (letter != 'S' && letter != 'O')
+            if (!game.isValidMove(row, col, letter))
                 return false;
 
-            game.getBoard()[row][col] = letter;
+            game.placeLetter(row, col, letter);
             return true;
         }
     }
 
     public static class ComputerPlayer extends Player {
+
+        // Called on the searching thread after every completed iteration
+        public interface SearchListener {
+            void depthCompleted(int depth, long nodes, Move bestMove);
+        }
+
+        // Search used when neither the opening book nor the endgame solver applies
+        public enum Engine { ALPHA_BETA, MCTS }
+
         private static final int MAX_DEPTH = 3;
+        private static final int DEFAULT_TABLE_BITS = 16;
+        // Empty cells at which the exact endgame solver takes over, and how long it may
+        // take when the player has no budget of its own
+        private static final int DEFAULT_ENDGAME_THRESHOLD = 14;
+        private static final long ENDGAME_MILLIS = 2000;
+        // MCTS tree capacity, and playouts per move when the player has no budget
+        private static final int DEFAULT_MCTS_NODES = 1 << 18;
+        private static final long MCTS_PLAYOUTS = 20000;
         private Random random = new Random();
 
+        private int tableBits = DEFAULT_TABLE_BITS;
+        private TranspositionTable.ReplacementPolicy replacementPolicy =
+                TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED;
+        private TranspositionTable table;
+
+        // Search limits; 0 means no limit. Without a budget the search stops at MAX_DEPTH.
+        private int maxDepth = 0;
+        private long timeBudgetMillis = 0;
+        private long nodeBudget = 0;
+
+        private int threads = 1;
+        private ForkJoinPool pool;
+        private boolean moveOrdering = true;
+
+        private SearchListener listener;
+        private volatile SearchControl activeSearch;
+
+        private boolean pondering = false;
+        private volatile PonderSession ponder;
+
+        private Path bookDirectory = OpeningBook.DEFAULT_DIRECTORY;
+
+        private int endgameThreshold = DEFAULT_ENDGAME_THRESHOLD;
+        // 0 sizes the endgame table like the main one
+        private int endgameTableBits = 0;
+        private TranspositionTable endgameTable;
+        private int endgameBoardSize;
+
+        private Engine engine = Engine.ALPHA_BETA;
+        private int mctsNodes = DEFAULT_MCTS_NODES;
+        private MctsSearch mcts;
+
+        private int lastSearchDepth;
+        private long lastSearchNodes;
+        private SearchStats lastSearchStats = new SearchStats();
+        private boolean detailedStats = false;
+        private SearchMetrics metrics;
+
         public ComputerPlayer(String name) { super(name); }
 
+        // Table holds 2^sizeBits entries; it is created on the next search
+        public synchronized void setTranspositionTable(int sizeBits, TranspositionTable.ReplacementPolicy policy) {
+            this.tableBits = sizeBits;
+            this.replacementPolicy = policy;
+            this.table = null;
+            if (endgameTableBits == 0) this.endgameTable = null;
+        }
+
+        public void setMaxDepth(int maxDepth) { this.maxDepth = maxDepth; }
+        public void setTimeBudget(long millis) { this.timeBudgetMillis = millis; }
+        public void setNodeBudget(long nodes) { this.nodeBudget = nodes; }
+
+        // A control carrying this player's time and node budget
+        SearchControl newSearchControl() { return new SearchControl(timeBudgetMillis, nodeBudget); }
+
+        // With a seed, single-threaded searches pick the same move every time
+        public void setSeed(long seed) { this.random = new Random(seed); }
+
+        // Number of threads splitting the root moves; 1 searches on the calling thread
+        public void setThreads(int threads) {
+            if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+            if (pool != null && threads != this.threads) {
+                pool.shutdown();
+                pool = null;
+            }
+            this.threads = threads;
+        }
+
+        // SOS-completing, killer and history ordering; the hash move is always tried first
+        public void setMoveOrdering(boolean enabled) { this.moveOrdering = enabled; }
+
+        // Where solved opening books are looked for; null turns them off
+        public void setOpeningBookDirectory(Path directory) { this.bookDirectory = directory; }
+
+        // Forget positions from earlier games, e.g. to make a seeded game reproducible
+        public void clearTranspositionTable() {
+            if (table != null) table.clear();
+            if (endgameTable != null) endgameTable.clear();
+        }
+
+        // Solve positions with at most this many empty cells exactly; 0 turns it off
+        public void setEndgameThreshold(int emptyCells) { this.endgameThreshold = emptyCells; }
+
+        // Endgame table holds 2^sizeBits entries, 0 for the main table's size; it is
+        // created on the next solve
+        public synchronized void setEndgameTable(int sizeBits) {
+            this.endgameTableBits = sizeBits;
+            this.endgameTable = null;
+        }
+
+        // True if the endgame solver rather than the heuristic search decides game
+        boolean solvesExactly(SOSGameBase game) { return game.getEmptyCellCount() <= endgameThreshold; }
+
+        public void setSearchListener(SearchListener listener) { this.listener = listener; }
+
+        // Also count leaf evaluations, table hits and per-ply/per-depth work; off by default
+        public void setDetailedStats(boolean enabled) { this.detailedStats = enabled; }
+
+        // Registry that receives the stats of every move; null turns it off
+        public void setMetrics(SearchMetrics metrics) { this.metrics = metrics; }
+
+        // Empty stats for a search of game, detailed if they are enabled
+        SearchStats newSearchStats(SOSGameBase game) {
+            return detailedStats ? new SearchStats(game.getEmptyCellCount()) : new SearchStats();
+        }
+
+        // With MCTS the node budget counts playouts and the threads share one tree
+        public void setEngine(Engine engine) { this.engine = engine; }
+        public Engine getEngine() { return engine; }
+
+        // Most MCTS tree nodes kept in memory; the tree is allocated on the next MCTS search
+        public void setMctsNodeLimit(int nodes) {
+            this.mctsNodes = nodes;
+            this.mcts = null;
+        }
+
+        // Stop the running search from another thread; computeBestMove then returns null
+        public void cancelSearch() {
+            SearchControl search = activeSearch;
+            if (search != null) search.cancel();
+        }
+
+        // Search likely replies while the opponent is to move; see startPondering
+        public void setPondering(boolean enabled) {
+            this.pondering = enabled;
+            if (!enabled) stopPondering();
+        }
+
+        public boolean isPondering() { return pondering; }
+
+        // Begin pondering the position game, which has the opponent to move. Does
+        // nothing unless pondering is enabled for the alpha-beta engine. The game is
+        // copied before returning.
+        public void startPondering(SOSGameBase game) {
+            stopPondering();
+            if (!pondering || engine != Engine.ALPHA_BETA || game.isGameOver() || game.getCurrentPlayer() == this) return;
+            if (game.getStorage() == SOSGameBase.Storage.TILED) return;
+            if (OpeningBook.forGame(bookDirectory, game) != null) return;
+            // Every reply would be left to the endgame solver
+            if (game.getEmptyCellCount() - 1 <= endgameThreshold) return;
+            ponder = new PonderSession(this, game, random.nextLong());
+            ponder.start();
+        }
+
+        public void stopPondering() {
+            PonderSession session = ponder;
+            ponder = null;
+            if (session != null) session.stop();
+        }
+
+        // True if pondering already found the reply to play in game
+        public boolean hasPonderedReply(SOSGameBase game) {
+            PonderSession session = ponder;
+            return session != null && session.hasReply(game);
+        }
+
+        private PonderSession.Result takePonderedReply(SOSGameBase game) {
+            PonderSession session = ponder;
+            ponder = null;
+            return session == null ? null : session.take(game);
+        }
+
+        // Depth of the last completed iteration and nodes visited by the last search
+        public int getLastSearchDepth() { return lastSearchDepth; }
+        public long getLastSearchNodes() { return lastSearchNodes; }
+        public SearchStats getLastSearchStats() { return lastSearchStats; }
+
         @Override
         public boolean makeMove(SOSGameBase game, int row, int col, char letter) {
 
             Move bestMove = computeBestMove(game);
             if (bestMove != null) {
-                game.getBoard()[bestMove.row][bestMove.col] = bestMove.letter;
+                game.placeLetter(bestMove.row, bestMove.col, bestMove.letter);
                 return true;
             }
             return false;
         }
 
+        // Returns null if there is no move or the search was cancelled. Boards with a
+        // solved opening book are looked up, and a reply the engine already found while
+        // pondering is returned without searching again.
         public Move computeBestMove(SOSGameBase game) {
+            GameEvents.SearchStarted started = new GameEvents.SearchStarted();
+            if (started.shouldCommit()) {
+                started.player = name;
+                started.engine = engine.name().toLowerCase().replace('_', '-');
+                started.boardSize = game.getBoardSize();
+                started.emptyCells = game.getEmptyCellCount();
+                started.commit();
+            }
+            GameEvents.Search event = new GameEvents.Search();
+            event.begin();
+
+            long start = System.nanoTime();
+            Move move = chooseMove(game);
+            lastSearchStats.elapsedNanos = System.nanoTime() - start;
+            if (metrics != null && move != null) metrics.record(lastSearchStats);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.player = name;
+                event.source = lastSearchStats.source;
+                event.depth = lastSearchStats.depth;
+                event.nodes = lastSearchStats.nodes;
+                event.move = move == null ? null : move.toString();
+                event.cancelled = move == null && game.getEmptyCellCount() > 0;
+                event.commit();
+            }
+            return move;
+        }
+
+        private Move chooseMove(SOSGameBase game) {
+            if (game.getStorage() == SOSGameBase.Storage.TILED) return localMove(game);
+
+            OpeningBook book = OpeningBook.forGame(bookDirectory, game);
+            if (book != null) {
+                lastSearchStats = new SearchStats();
+                lastSearchStats.source = "book";
+                lastSearchStats.depth = game.getEmptyCellCount();
+                lastSearchDepth = lastSearchStats.depth;
+                lastSearchNodes = 0;
+                return book.bestMove(game, random);
+            }
+
+            // The solver's move is exact, so it beats any heuristic reply found while pondering
+            if (solvesExactly(game)) {
+                stopPondering();
+                SearchControl control = endgameControl();
+                activeSearch = control;
+                EndgameSolver solver = new EndgameSolver(game.searchCopy(), endgameTable(game.getBoardSize()), control, detailedStats);
+                Move solved = solver.solveRoot();
+                activeSearch = null;
+                if (control.isCancelled()) return null;
+                if (solved != null) {
+                    lastSearchDepth = solver.getStats().depth;
+                    lastSearchNodes = control.getNodes();
+                    lastSearchStats = solver.getStats();
+                    return solved;
+                }
+                // Out of time: fall back to the heuristic search
+            } else {
+                PonderSession.Result pondered = takePonderedReply(game);
+                if (pondered != null) {
+                    lastSearchDepth = pondered.stats.depth;
+                    lastSearchNodes = pondered.stats.nodes;
+                    lastSearchStats = pondered.stats;
+                    lastSearchStats.source = "ponder";
+                    return pondered.move;
+                }
+            }
+
+            SearchControl control = newSearchControl();
+            activeSearch = control;
+            SearchStats stats = newSearchStats(game);
             Move bestMove = null;
-            int bestScore = Integer.MIN_VALUE;
-            
+            if (engine == Engine.MCTS) {
+                if (!control.hasBudget()) control = activeSearch = new SearchControl(0, MCTS_PLAYOUTS);
+                bestMove = searchMcts(game, control, stats);
+            }
+            // A tree too small to hold the root's children leaves the move to alpha-beta
+            if (bestMove == null && !control.isCancelled()) {
+                bestMove = search(game, control, threads, random, listener, stats);
+            }
+            activeSearch = null;
+
+            lastSearchDepth = stats.depth;
+            lastSearchNodes = control.getNodes();
+            lastSearchStats = stats;
+            return control.isCancelled() ? null : bestMove;
+        }
+
+        // Iterative deepening: search depth 1, 2, ... until the depth limit or the
+        // time/node budget is reached, keeping the best move of the last completed depth
+        Move search(SOSGameBase game, SearchControl control, int threads, Random random,
+                    SearchListener listener, SearchStats stats) {
+            TranspositionTable table = table();
+            table.newSearch();
+
             List<Move> possibleMoves = getAllPossibleMoves(game);
+            if (possibleMoves.isEmpty()) {
+                return null;
+            }
 
             java.util.Collections.shuffle(possibleMoves, random);
+            if (moveOrdering) {
+                // Stable sort keeps the shuffled order among moves that score nothing
+                possibleMoves.sort((a, b) -> game.countSOSCompletedBy(b.row, b.col, b.letter)
+                        - game.countSOSCompletedBy(a.row, a.col, a.letter));
+            }
 
-            for (Move move : possibleMoves) {
-
-                char[][] board = game.getBoard();
-                char original = board[move.row][move.col];
-                board[move.row][move.col] = move.letter;
+            // Every worker plays through its own copy, so the caller's game, its record and
+            // its undo stack are never touched
+            boolean isBlue = name.equals("Blue");
+            SearchWorker main = new SearchWorker(game.searchCopy(), table, control, isBlue, moveOrdering, stats.isDetailed());
 
-                int score = minimax(game, MAX_DEPTH - 1, Integer.MIN_VALUE, Integer.MAX_VALUE, false);
-                
+            List<SearchWorker> helpers = new ArrayList<>();
+            if (threads > 1) {
+                for (int i = 0; i < threads; i++) {
+                    helpers.add(new SearchWorker(game.searchCopy(), table, control, isBlue, moveOrdering, stats.isDetailed()));
+                }
+            }
 
-                board[move.row][move.col] = original;
-                
-                if (score > bestScore) {
-                    bestScore = score;
-                    bestMove = move;
+            int emptyCells = possibleMoves.size() / 2;
+            int depthLimit = maxDepth > 0 ? maxDepth : control.hasBudget() ? emptyCells : MAX_DEPTH;
+            depthLimit = Math.min(depthLimit, emptyCells);
+
+            Move bestMove = possibleMoves.get(0);
+            for (int depth = 1; depth <= depthLimit; depth++) {
+                // Depth 1 always completes so there is a move to fall back on
+                control.setBudgetActive(control.hasBudget() && depth > 1);
+                long iterationStart = stats.isDetailed() ? System.nanoTime() : 0;
+                long nodesBefore = stats.isDetailed() ? workerNodes(main, helpers) : 0;
+
+                Move found = helpers.isEmpty()
+                        ? searchRoot(main, possibleMoves, depth)
+                        : searchRootParallel(main, helpers, possibleMoves, depth);
+                if (control.isAborted()) break;
+
+                bestMove = found;
+                stats.depth = depth;
+                if (stats.isDetailed()) {
+                    stats.depthNodes[depth] = workerNodes(main, helpers) - nodesBefore;
+                    stats.depthNanos[depth] = System.nanoTime() - iterationStart;
+                }
+                if (listener != null) {
+                    main.flushNodes();
+                    listener.depthCompleted(depth, control.getNodes(), bestMove);
                 }
+
+                // Try the previous iteration's best move first
+                possibleMoves.remove(found);
+                possibleMoves.add(0, found);
+            }
+
+            main.flushNodes();
+            stats.add(main.getStats());
+            for (SearchWorker helper : helpers) {
+                helper.flushNodes();
+                stats.add(helper.getStats());
             }
-            
             return bestMove;
         }
 
-        // Minimax algol w/ alpha-beta pruning
-        private int minimax(SOSGameBase game, int depth, int alpha, int beta, boolean isMaximizing) {
- 
-            if (depth == 0 || isGameOver(game)) {
-                return evaluatePosition(game);
-            }
-
-            List<Move> moves = getAllPossibleMoves(game);
-            if (moves.isEmpty()) {
-                return evaluatePosition(game);
-            }
-
-            if (isMaximizing) {
-                int maxEval = Integer.MIN_VALUE;
-                for (Move move : moves) {
-                    char[][] board = game.getBoard();
-                    char original = board[move.row][move.col];
-                    board[move.row][move.col] = move.letter;
-                    
-                    int eval = minimax(game, depth - 1, alpha, beta, false);
-                    
-                    board[move.row][move.col] = original;
-                    
-                    maxEval = Math.max(maxEval, eval);
-                    alpha = Math.max(alpha, eval);
-                    if (beta <= alpha) break;
-                }
-                return maxEval;
+        private static long workerNodes(SearchWorker main, List<SearchWorker> helpers) {
+            long nodes = main.getStats().nodes;
+            for (SearchWorker helper : helpers) nodes += helper.getStats().nodes;
+            return nodes;
+        }
+
+        // Tree-parallel MCTS: every thread runs playouts into the same tree until the
+        // budget is spent, and the most visited root move is played
+        private Move searchMcts(SOSGameBase game, SearchControl control, SearchStats stats) {
+            if (game.getEmptyCellCount() == 0) return null;
+            if (mcts == null) mcts = new MctsSearch(mctsNodes);
+            mcts.reset(game);
+            control.setBudgetActive(true);
+
+            List<MctsSearch.Worker> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(mcts.new Worker(game, random.nextLong()));
+            }
+
+            if (threads == 1) {
+                workers.get(0).run(control);
             } else {
-                int minEval = Integer.MAX_VALUE;
-                for (Move move : moves) {
-                    char[][] board = game.getBoard();
-                    char original = board[move.row][move.col];
-                    board[move.row][move.col] = move.letter;
-                    
-                    int eval = minimax(game, depth - 1, alpha, beta, true);
-                    
-                    board[move.row][move.col] = original;
-                    
-                    minEval = Math.min(minEval, eval);
-                    beta = Math.min(beta, eval);
-                    if (beta <= alpha) break; 
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for (MctsSearch.Worker worker : workers) {
+                    tasks.add(() -> {
+                        worker.run(control);
+                        return null;
+                    });
                 }
-                return minEval;
+                runTasks(tasks);
             }
-        }
-
-        private int evaluatePosition(SOSGameBase game) {
-            int score = 0;
-            char[][] board = game.getBoard();
-            int size = game.getBoardSize();
-            
 
-            int computerPotential = 0;
-            int opponentPotential = 0;
-            
+            Move bestMove = mcts.bestMove(game.getBoardSize());
+            if (bestMove != null) stats.source = "mcts";
+            stats.nodes = control.getNodes();
+            for (MctsSearch.Worker worker : workers) stats.depth = Math.max(stats.depth, worker.maxDepth);
+            if (listener != null && bestMove != null) listener.depthCompleted(stats.depth, stats.nodes, bestMove);
+            return bestMove;
+        }
 
-            int[][] dirs = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
-            
-            for (int r = 0; r < size; r++) {
-                for (int c = 0; c < size; c++) {
-                    for (int[] d : dirs) {
-                        int r2 = r + d[0];
-                        int r3 = r + 2 * d[0];
-                        int c2 = c + d[1];
-                        int c3 = c + 2 * d[1];
-                        
-                        if (inBounds(r3, c3, size)) {
-
-                            if (board[r][c] == 'S' && board[r2][c2] == 'O' && board[r3][c3] == 'S') {
-                                computerPotential += 100;
-                            }
+        // Tiled boards are too large to search. Only cells within two of a letter can
+        // complete an SOS or set one up, so play the move there that completes the most,
+        // else one that leaves the opponent no threat, else a letter in open space.
+        private Move localMove(SOSGameBase game) {
+            lastSearchStats = new SearchStats();
+            lastSearchStats.source = "local";
+            lastSearchStats.depth = 1;
+            lastSearchDepth = 1;
+            if (game.isBoardFull()) {
+                lastSearchNodes = 0;
+                return null;
+            }
 
-                            else if (board[r][c] == 'S' && board[r3][c3] == 'S' && board[r2][c2] == ' ') {
-                                computerPotential += 10; 
-                            }
-                            else if (board[r][c] == 'S' && board[r2][c2] == 'O' && board[r3][c3] == ' ') {
-                                computerPotential += 15;
-                            }
-                            else if (board[r][c] == ' ' && board[r2][c2] == 'O' && board[r3][c3] == 'S') {
-                                computerPotential += 15;
+            int size = game.getBoardSize();
+            Move[] best = new Move[2];
+            int[] found = new int[2];
+            game.forEachFilledCell((row, col, filled) -> {
+                for (int r = Math.max(0, row - 2); r <= Math.min(size - 1, row + 2); r++) {
+                    for (int c = Math.max(0, col - 2); c <= Math.min(size - 1, col + 2); c++) {
+                        if (game.getCell(r, c) != ' ') continue;
+                        for (char letter : new char[] {'S', 'O'}) {
+                            lastSearchStats.nodes++;
+                            int completed = game.countSOSCompletedBy(r, c, letter);
+                            if (completed > found[0]) {
+                                found[0] = completed;
+                                best[0] = new Move(r, c, letter);
+                            } else if (found[0] == 0 && completed == 0 && game.countThreatsCreatedBy(r, c, letter) == 0
+                                    && random.nextInt(++found[1]) == 0) {
+                                best[1] = new Move(r, c, letter);
                             }
                         }
                     }
                 }
+            });
+            lastSearchNodes = lastSearchStats.nodes;
+            if (best[0] != null) return best[0];
+            if (best[1] != null) return best[1];
+
+            // An S with nothing within two cells sets nothing up; on a sparse board a few
+            // random tries find one
+            for (int attempt = 0; attempt < 64; attempt++) {
+                int r = random.nextInt(size);
+                int c = random.nextInt(size);
+                if (game.getCell(r, c) == ' ' && game.countThreatsCreatedBy(r, c, 'S') == 0) return new Move(r, c, 'S');
             }
-            
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    if (game.getCell(r, c) == ' ') return new Move(r, c, 'S');
+                }
+            }
+            return null;
+        }
 
-            int centerBonus = 0;
-            int centerR = size / 2;
-            int centerC = size / 2;
-            if (board[centerR][centerC] != ' ') {
-                centerBonus = 5;
+        // Half the player's budget, so the fallback search still has the other half
+        private SearchControl endgameControl() {
+            long millis = timeBudgetMillis > 0 ? Math.max(1, timeBudgetMillis / 2) : 0;
+            long nodes = nodeBudget > 0 ? Math.max(1, nodeBudget / 2) : 0;
+            if (millis == 0 && nodes == 0) millis = ENDGAME_MILLIS;
+            SearchControl control = new SearchControl(millis, nodes);
+            control.setBudgetActive(true);
+            return control;
+        }
+
+        // Endgame values hold for the whole game, so the table is kept between moves;
+        // keys of different board sizes could clash, so a new size starts a new table
+        private TranspositionTable endgameTable(int boardSize) {
+            if (endgameTable == null || endgameBoardSize != boardSize) {
+                endgameTable = new TranspositionTable(endgameTableBits > 0 ? endgameTableBits : tableBits,
+                        TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+                endgameBoardSize = boardSize;
+            }
+            return endgameTable;
+        }
+
+        // Shared by the move search and the ponder thread
+        private synchronized TranspositionTable table() {
+            if (table == null) {
+                table = new TranspositionTable(tableBits, replacementPolicy);
+            }
+            return table;
+        }
+
+        private Move searchRoot(SearchWorker worker, List<Move> possibleMoves, int depth) {
+            Move bestMove = null;
+            int bestScore = Integer.MIN_VALUE;
+
+            for (Move move : possibleMoves) {
+                int score = worker.searchRootMove(move, depth, bestScore);
+                if (worker.isAborted()) return null;
+                
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = move;
+                }
             }
             
-            score = computerPotential + centerBonus;
-            
-            return score;
+            return bestMove;
         }
 
-        private boolean inBounds(int r, int c, int size) {
-            return r >= 0 && r < size && c >= 0 && c < size;
+        // Root split: the first move is searched alone to set a bound, then the helpers
+        // take the remaining moves from a shared index, all raising one shared alpha
+        private Move searchRootParallel(SearchWorker main, List<SearchWorker> helpers,
+                                        List<Move> possibleMoves, int depth) {
+            RootSplit split = new RootSplit(main.searchRootMove(possibleMoves.get(0), depth, Integer.MIN_VALUE));
+            if (main.isAborted()) return null;
+
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (SearchWorker helper : helpers) {
+                tasks.add(() -> {
+                    int i;
+                    while ((i = split.next.getAndIncrement()) < possibleMoves.size()) {
+                        int score = helper.searchRootMove(possibleMoves.get(i), depth, split.alpha());
+                        if (helper.isAborted()) break;
+                        split.offer(i, score);
+                    }
+                    return null;
+                });
+            }
+
+            runTasks(tasks);
+            return possibleMoves.get(split.bestIndex());
         }
 
-        private boolean isGameOver(SOSGameBase game) {
-            char[][] board = game.getBoard();
-            for (int i = 0; i < game.getBoardSize(); i++) {
-                for (int j = 0; j < game.getBoardSize(); j++) {
-                    if (board[i][j] == ' ') return false;
+        private void runTasks(List<Callable<Void>> tasks) {
+            if (pool == null) {
+                pool = new ForkJoinPool(threads);
+            }
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                try {
+                    result.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Search interrupted", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search worker failed", e.getCause());
                 }
             }
-            return true;
         }
 
-        private List<Move> getAllPossibleMoves(SOSGameBase game) {
+        // Best root move found so far by any thread
+        private static class RootSplit {
+            final AtomicInteger next = new AtomicInteger(1);
+            private int bestScore;
+            private int bestIndex = 0;
+
+            RootSplit(int firstScore) { this.bestScore = firstScore; }
+
+            synchronized int alpha() { return bestScore; }
+            synchronized int bestIndex() { return bestIndex; }
+
+            // Only a strict improvement is exact; anything else may be a fail-low bound
+            synchronized void offer(int index, int score) {
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestIndex = index;
+                }
+            }
+        }
+
+        // O(1): the pattern counts are kept up to date as cells change
+        static int evaluatePosition(SOSGameBase game) {
+            int size = game.getBoardSize();
+
+            int computerPotential = 100 * game.getPatternCount(SOSGameBase.PATTERN_SOS)
+                    + 10 * game.getPatternCount(SOSGameBase.PATTERN_S_S)
+                    + 15 * game.getPatternCount(SOSGameBase.PATTERN_SO_)
+                    + 15 * game.getPatternCount(SOSGameBase.PATTERN__OS);
+
+            // One central cell on odd sizes, the middle 2x2 on even ones, so that all 8
+            // orientations of a board evaluate the same
+            int centerBonus = 0;
+            for (int r = (size - 1) / 2; r <= size / 2; r++) {
+                for (int c = (size - 1) / 2; c <= size / 2; c++) {
+                    if (game.getCell(r, c) != ' ') centerBonus = 5;
+                }
+            }
+
+            return computerPotential + centerBonus;
+        }
+
+        static List<Move> getAllPossibleMoves(SOSGameBase game) {
             List<Move> moves = new ArrayList<>();
-            char[][] board = game.getBoard();
             int size = game.getBoardSize();
             
             for (int r = 0; r < size; r++) {
                 for (int c = 0; c < size; c++) {
-                    if (board[r][c] == ' ') {
+                    if (game.getCell(r, c) == ' ') {
                         moves.add(new Move(r, c, 'S'));
                         moves.add(new Move(r, c, 'O'));
                     }
@@ -230,6 +656,15 @@ public class SOSGame {
                 this.col = col;
                 this.letter = letter;
             }
+
+            int encode(int boardSize) {
+                return (row * boardSize + col) * 2 + (letter == 'O' ? 1 : 0);
+            }
+
+            @Override
+            public String toString() {
+                return letter + " at (" + row + ", " + col + ")";
+            }
         }
     }
 }
\ No newline at end of file
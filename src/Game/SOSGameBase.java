@@ -1,12 +1,38 @@
 package Game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 public abstract class SOSGameBase {
 
+    // DENSE keeps a char[][] and a BitBoard for the engines. TILED keeps only a
+    // TiledBoard, for very large boards that are mostly empty; the rules, hashes and
+    // SOS detection work the same, but the search engines need dense storage.
+    public enum Storage {
+        DENSE, TILED;
+
+        public static Storage forSize(int boardSize) {
+            return boardSize > DENSE_MAX_SIZE ? TILED : DENSE;
+        }
+    }
+
+    public static final int DENSE_MAX_SIZE = 256;
+    // Largest board whose cell indices still fit GameRecord's packed moves (cell << 1)
+    public static final int MAX_SIZE = 1 << 15;
+
     protected int boardSize;
+    // Exactly one of board and tiles is set, depending on the storage
     protected char[][] board;
+    private final TiledBoard tiles;
+    protected BitBoard bitBoard;
+    // Zobrist hash of the board as seen through each BoardSymmetry transform;
+    // entry IDENTITY is the plain board hash
+    protected final long[] symmetricHashes = new long[BoardSymmetry.COUNT];
+    private final int[][] symmetryMaps;
+    // Kept by setCell so that full-board and game-over checks are constant time
+    protected int emptyCells;
     protected SOSGame.Player bluePlayer;
     protected SOSGame.Player redPlayer;
     protected SOSGame.Player currentPlayer;
@@ -22,28 +48,142 @@ public abstract class SOSGameBase {
     protected static final char EMPTY = ' ';
     protected List<SOSGame.SOSLine> sosLines = new ArrayList<>();
 
+    // Lines already scored with dense storage, indexed by middle cell and direction;
+    // tiled boards mark them in the tiles
+    protected BitSet scoredLines = new BitSet();
+
+    // Cells placed since the last SOS check
+    private int[] pendingCells = new int[4];
+    private int pendingCount = 0;
+
+    // Undo stack for makeMove: FRAME ints per move, laid out as the F_ offsets, and
+    // (middle cell, direction) pairs for the lines each move scored
+    private static final int F_CELL = 0, F_BLUE_TO_MOVE = 1, F_WINNER = 2, F_DRAW = 3, F_BLUE_SCORE = 4,
+            F_RED_SCORE = 5, F_SOS_LINES = 6, F_SCORED = 7, F_PENDING = 8, F_RECORDED = 9, FRAME = 10;
+    private int[] undoFrames = new int[FRAME * 16];
+    private int undoDepth = 0;
+    private int[] undoLines = new int[32];
+    private int undoLineCount = 0;
+    private boolean loggingLines = false;
+
+    // Moves played through placeLetter, once startRecording has been called
+    private GameRecord record;
+    // Set on searchCopy games, whose moves raise no Flight Recorder events and add no
+    // SOSLine objects, so an engine playing through them allocates nothing per move
+    private boolean quiet = false;
+
+    // Window patterns counted for the computer's evaluation
+    public static final int PATTERN_SOS = 0;
+    public static final int PATTERN_S_S = 1;
+    public static final int PATTERN_SO_ = 2;
+    public static final int PATTERN__OS = 3;
+
+    // Running counts of each pattern over all windows, kept up to date by setCell
+    protected final int[] patternCounts = new int[4];
+
+    protected static final int[][] DIRS = {
+        {0, 1},   // horizontal
+        {1, 0},   // vertical
+        {1, 1},   // diagonal down-right
+        {1, -1}   // diagonal down-left
+    };
+
     public SOSGameBase(int boardSize, SOSGame.Player bluePlayer, SOSGame.Player redPlayer, String mode) {
+        this(boardSize, bluePlayer, redPlayer, mode, Storage.forSize(boardSize));
+    }
+
+    public SOSGameBase(int boardSize, SOSGame.Player bluePlayer, SOSGame.Player redPlayer, String mode, Storage storage) {
+        if (boardSize > MAX_SIZE) throw new IllegalArgumentException("Board size must be at most " + MAX_SIZE);
         this.boardSize = boardSize;
         this.bluePlayer = bluePlayer;
         this.redPlayer = redPlayer;
         this.currentPlayer = bluePlayer;
         this.gameMode = mode;
-        this.board = new char[boardSize][boardSize];
+        if (storage == Storage.DENSE) {
+            this.board = new char[boardSize][boardSize];
+            this.bitBoard = new BitBoard(boardSize);
+            this.symmetryMaps = BoardSymmetry.cellMaps(boardSize);
+            this.tiles = null;
+        } else {
+            this.tiles = new TiledBoard(boardSize);
+            this.symmetryMaps = null;
+        }
+        this.emptyCells = boardSize * boardSize;
         initializeBoard();
     }
 
     protected void initializeBoard() {
+        if (board == null) return;
         for (int i = 0; i < boardSize; i++)
             for (int j = 0; j < boardSize; j++)
                 board[i][j] = EMPTY;
     }
 
     public int getBoardSize() { return boardSize; }
-    public char[][] getBoard() { return board; }
+    public Storage getStorage() { return tiles == null ? Storage.DENSE : Storage.TILED; }
+
+    public char getCell(int row, int col) { return cellAt(row, col); }
+
+    // Compatibility view of the packed board; place letters through placeLetter. With
+    // tiled storage this is a new boardSize^2 snapshot, so large-board code should use
+    // getCell and forEachFilledCell instead.
+    public char[][] getBoard() {
+        if (board != null) return board;
+        char[][] snapshot = new char[boardSize][boardSize];
+        for (char[] row : snapshot) Arrays.fill(row, EMPTY);
+        tiles.forEachFilled((row, col, letter) -> snapshot[row][col] = letter);
+        return snapshot;
+    }
+
+    // Every letter on the board; with tiled storage only the allocated tiles are read
+    public void forEachFilledCell(TiledBoard.CellVisitor visitor) {
+        if (tiles != null) {
+            tiles.forEachFilled(visitor);
+            return;
+        }
+        for (int r = 0; r < boardSize; r++)
+            for (int c = 0; c < boardSize; c++)
+                if (board[r][c] != EMPTY) visitor.visit(r, c, board[r][c]);
+    }
+
+    TiledBoard getTiles() { return tiles; }
+
+    BitBoard getBitBoard() {
+        if (bitBoard == null) throw new IllegalStateException("Tiled boards keep no BitBoard");
+        return bitBoard;
+    }
+    public long getHash() { return symmetricHashes[BoardSymmetry.IDENTITY]; }
+
+    // The same hash for all 8 orientations of a board
+    public long getCanonicalHash() {
+        return symmetricHashes[getCanonicalTransform()];
+    }
+
+    // Transform that turns this board into its canonical orientation
+    public int getCanonicalTransform() {
+        int best = BoardSymmetry.IDENTITY;
+        for (int t = 1; t < BoardSymmetry.COUNT; t++) {
+            if (symmetricHashes[t] < symmetricHashes[best]) best = t;
+        }
+        return best;
+    }
+
+    int[][] getSymmetryMaps() { return symmetryMaps; }
+    public int getEmptyCellCount() { return emptyCells; }
+    public int getPatternCount(int pattern) { return patternCounts[pattern]; }
     public SOSGame.Player getCurrentPlayer() { return currentPlayer; }
+    public boolean isBlueToMove() { return currentPlayer == bluePlayer; }
     public List<SOSGame.SOSLine> getSOSLines() { return sosLines; }
     public String getGameMode() { return gameMode; }
 
+    // Record every move from now on; call before the first move. Copies do not record.
+    public GameRecord startRecording() {
+        record = GameRecord.of(this);
+        return record;
+    }
+
+    public GameRecord getRecord() { return record; }
+
     public void switchPlayer() {
         currentPlayer = (currentPlayer == bluePlayer) ? redPlayer : bluePlayer;
     }
@@ -62,69 +202,304 @@ public abstract class SOSGameBase {
         if (currentPlayer.getName().equals(color)) currentPlayer = getPlayer(color);
     }
 
+    // Independent copy of the game state, e.g. for a search thread
+    public abstract SOSGameBase copy();
+
+    // Copy for an engine to play through with makeMove: the moves it tries are not
+    // game moves, so they raise no MoveApplied or SOSScan events. The copy keeps the
+    // lines of the game so far but adds none to getSOSLines; the undo log still holds
+    // the lines it scores.
+    SOSGameBase searchCopy() {
+        SOSGameBase copy = copy();
+        copy.quiet = true;
+        return copy;
+    }
+
+    protected void copyStateFrom(SOSGameBase other) {
+        other.forEachFilledCell(this::setCell);
+        // Picks up the scored-line marks kept in the tiles
+        if (tiles != null) tiles.copyFrom(other.tiles);
+
+        currentPlayer = other.currentPlayer;
+        winner = other.winner;
+        draw = other.draw;
+        blueScore = other.blueScore;
+        redScore = other.redScore;
+        sosLines = new ArrayList<>(other.sosLines);
+        scoredLines = (BitSet) other.scoredLines.clone();
+        pendingCells = other.pendingCells.clone();
+        pendingCount = other.pendingCount;
+    }
+
     public abstract int checkForNewSOS();
     public abstract String getWinner();
     public abstract boolean isDraw();
     public abstract int getBlueScore();
     public abstract int getRedScore();
 
-    // Count new SOS patterns
-    protected int countNewSOS(SOSGame.Player player) {
+    // Put a letter on the board and remember the cell for the next SOS check
+    public void placeLetter(int row, int col, char letter) {
+        setCell(row, col, letter);
+        if (pendingCount == pendingCells.length) {
+            pendingCells = Arrays.copyOf(pendingCells, pendingCount * 2);
+        }
+        pendingCells[pendingCount++] = row * boardSize + col;
+        if (record != null) record.add(row, col, letter);
+
+        if (quiet) return;
+        GameEvents.MoveApplied event = new GameEvents.MoveApplied();
+        if (event.shouldCommit()) {
+            event.player = currentPlayer.getName();
+            event.row = row;
+            event.col = col;
+            event.letter = letter;
+            event.emptyCells = emptyCells;
+            event.commit();
+        }
+    }
+
+    public boolean isValidMove(int row, int col, char letter) {
+        return inBounds(row, col) && cellAt(row, col) == EMPTY && (letter == 'S' || letter == 'O');
+    }
+
+    // applyMove that can be taken back: unmakeMove restores the board, scores, scored
+    // lines, empty-cell count, side to move, result and hashes exactly. Copies start
+    // with nothing to unmake.
+    public int makeMove(int row, int col, char letter) {
+        if (!isValidMove(row, col, letter)) throw new IllegalArgumentException("Invalid move " + letter + " at (" + row + ", " + col + ")");
+        if ((undoDepth + 1) * FRAME > undoFrames.length) undoFrames = Arrays.copyOf(undoFrames, undoFrames.length * 2);
+        int[] frame = undoFrames;
+        int f = undoDepth++ * FRAME;
+        frame[f + F_CELL] = row * boardSize + col;
+        frame[f + F_BLUE_TO_MOVE] = currentPlayer == bluePlayer ? 1 : 0;
+        frame[f + F_WINNER] = winner == null ? 0 : winner.equals("Blue") ? 1 : 2;
+        frame[f + F_DRAW] = draw ? 1 : 0;
+        frame[f + F_BLUE_SCORE] = blueScore;
+        frame[f + F_RED_SCORE] = redScore;
+        frame[f + F_SOS_LINES] = sosLines.size();
+        frame[f + F_SCORED] = undoLineCount;
+        frame[f + F_PENDING] = pendingCount;
+        frame[f + F_RECORDED] = record != null ? 1 : 0;
+
+        loggingLines = true;
+        try {
+            return applyMove(row, col, letter);
+        } finally {
+            loggingLines = false;
+        }
+    }
+
+    // Take back the last makeMove
+    public void unmakeMove() {
+        if (undoDepth == 0) throw new IllegalStateException("No move to unmake");
+        int[] frame = undoFrames;
+        int f = --undoDepth * FRAME;
+
+        // Clear the lines while their middle letter still holds their tile
+        for (int i = undoLineCount - 2; i >= frame[f + F_SCORED]; i -= 2) {
+            unmarkLine(undoLines[i], undoLines[i + 1]);
+        }
+        undoLineCount = frame[f + F_SCORED];
+        for (int i = sosLines.size() - 1; i >= frame[f + F_SOS_LINES]; i--) sosLines.remove(i);
+
+        int cell = frame[f + F_CELL];
+        setCell(cell / boardSize, cell % boardSize, EMPTY);
+        currentPlayer = frame[f + F_BLUE_TO_MOVE] == 1 ? bluePlayer : redPlayer;
+        winner = frame[f + F_WINNER] == 0 ? null : frame[f + F_WINNER] == 1 ? "Blue" : "Red";
+        draw = frame[f + F_DRAW] == 1;
+        blueScore = frame[f + F_BLUE_SCORE];
+        redScore = frame[f + F_RED_SCORE];
+        pendingCount = frame[f + F_PENDING];
+        // Only a move that placeLetter recorded is taken off the record
+        if (frame[f + F_RECORDED] == 1) record.removeLast();
+    }
+
+    // Moves made with makeMove that can still be unmade
+    public int getUndoDepth() { return undoDepth; }
+
+    // Play a letter for the current player with the full turn rules: score it, update
+    // the game status and pass the turn unless a general-mode SOS earns another one
+    public int applyMove(int row, int col, char letter) {
+        placeLetter(row, col, letter);
+        int newSOS = checkForNewSOS();
+        checkGameStatus();
+        if (!isGameOver() && !(gameMode.equals("general") && newSOS > 0)) {
+            switchPlayer();
+        }
+        return newSOS;
+    }
+
+    // Finished by a winner, a draw, or (simple mode without an SOS) a full board
+    public boolean isGameOver() {
+        return getWinner() != null || isDraw() || isBoardFull();
+    }
+
+    // Write a cell of the packed board, its char view, the hashes, the empty-cell count
+    // and the pattern counts, without scoring. Every board change goes through here.
+    void setCell(int row, int col, char letter) {
+        char old = cellAt(row, col);
+        int cell = row * boardSize + col;
+        if (old != EMPTY) {
+            toggleHashes(cell, old);
+            emptyCells++;
+        }
+        if (letter != EMPTY) {
+            toggleHashes(cell, letter);
+            emptyCells--;
+        }
+        if (bitBoard != null) bitBoard.set(row, col, letter);
+
+        adjustPatterns(row, col, -1);
+        if (board != null) board[row][col] = letter;
+        else tiles.set(row, col, letter);
+        adjustPatterns(row, col, 1);
+    }
+
+    private void toggleHashes(int cell, char letter) {
+        if (symmetryMaps != null) {
+            for (int t = 0; t < BoardSymmetry.COUNT; t++) {
+                symmetricHashes[t] ^= Zobrist.cell(symmetryMaps[t][cell], letter);
+            }
+            return;
+        }
+        // No cell maps for tiled boards: they would take 8 ints per cell
+        int row = cell / boardSize;
+        int col = cell % boardSize;
+        for (int t = 0; t < BoardSymmetry.COUNT; t++) {
+            int image = BoardSymmetry.mapRow(t, row, col, boardSize) * boardSize + BoardSymmetry.mapCol(t, row, col, boardSize);
+            symmetricHashes[t] ^= Zobrist.cell(image, letter);
+        }
+    }
+
+    // Add delta to the counts of the patterns in every window through (row, col)
+    private void adjustPatterns(int row, int col, int delta) {
+        for (int[] d : DIRS) {
+            for (int k = 0; k < 3; k++) {
+                int r1 = row - k * d[0];
+                int c1 = col - k * d[1];
+                int r3 = r1 + 2 * d[0];
+                int c3 = c1 + 2 * d[1];
+                if (!inBounds(r1, c1) || !inBounds(r3, c3)) continue;
+
+                int pattern = classify(cellAt(r1, c1), cellAt(r1 + d[0], c1 + d[1]), cellAt(r3, c3));
+                if (pattern >= 0) patternCounts[pattern] += delta;
+            }
+        }
+    }
+
+    private static int classify(char first, char middle, char last) {
+        if (first == 'S') {
+            if (last == 'S') return middle == 'O' ? PATTERN_SOS : middle == EMPTY ? PATTERN_S_S : -1;
+            return middle == 'O' && last == EMPTY ? PATTERN_SO_ : -1;
+        }
+        return first == EMPTY && middle == 'O' && last == 'S' ? PATTERN__OS : -1;
+    }
+
+    // Number of SOS that placing letter on the empty cell (row, col) would complete
+    public int countSOSCompletedBy(int row, int col, char letter) {
+        int count = 0;
+        for (int[] d : DIRS) {
+            if (letter == 'O') {
+                if (letterAt(row - d[0], col - d[1]) == 'S' && letterAt(row + d[0], col + d[1]) == 'S') count++;
+            } else if (letter == 'S') {
+                if (letterAt(row + d[0], col + d[1]) == 'O' && letterAt(row + 2 * d[0], col + 2 * d[1]) == 'S') count++;
+                if (letterAt(row - d[0], col - d[1]) == 'O' && letterAt(row - 2 * d[0], col - 2 * d[1]) == 'S') count++;
+            }
+        }
+        return count;
+    }
+
+    // Number of windows through the empty cell (row, col) that placing letter would
+    // leave one letter short of an SOS, i.e. new chances for the next player
+    public int countThreatsCreatedBy(int row, int col, char letter) {
         int count = 0;
-        int[][] dirs = {
-            {0, 1},   // horizontal
-            {1, 0},   // vertical
-            {1, 1},   // diagonal down-right
-            {1, -1}   // diagonal down-left
-        };
-
-        for (int r = 0; r < boardSize; r++) {
-            for (int c = 0; c < boardSize; c++) {
-                for (int[] d : dirs) {
-                    int r2 = r + d[0];
-                    int r3 = r + 2 * d[0];
-                    int c2 = c + d[1];
-                    int c3 = c + 2 * d[1];
-
-                    if (inBounds(r3, c3)) {
-                        if (board[r][c] == 'S' && board[r2][c2] == 'O' && board[r3][c3] == 'S') {
-                        	// Check if line already exists
-                            boolean exists = false;
-                            for (SOSGame.SOSLine line : sosLines) {
-                                if ((line.startRow == r && line.startCol == c &&
-                                     line.endRow == r3 && line.endCol == c3) ||
-                                    (line.startRow == r3 && line.startCol == c3 &&
-                                     line.endRow == r && line.endCol == c)) {
-                                    exists = true;
-                                    break;
-                                }
-                            }
-                            if (!exists) {
-                                sosLines.add(new SOSGame.SOSLine(r, c, r3, c3, player.getName()));
-                                count++;
-                            }
-                        }
+        for (int[] d : DIRS) {
+            for (int k = 0; k < 3; k++) {
+                // Window cells are (row, col) + (i - k) * d for i = 0..2, with (row, col) at i = k
+                if (letter != (k == 1 ? 'O' : 'S')) continue;
+                int matched = 0;
+                int empty = 0;
+                for (int i = 0; i < 3; i++) {
+                    if (i == k) continue;
+                    int r = row + (i - k) * d[0];
+                    int c = col + (i - k) * d[1];
+                    if (!inBounds(r, c)) {
+                        empty = -1;
+                        break;
                     }
+                    char cell = cellAt(r, c);
+                    if (cell == EMPTY) empty++;
+                    else if (cell == (i == 1 ? 'O' : 'S')) matched++;
                 }
+                if (matched == 1 && empty == 1) count++;
             }
         }
-
         return count;
     }
-   
-    public void checkGameStatus() {
-        boolean boardFull = true;
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (board[i][j] == EMPTY) {
-                    boardFull = false;
-                    break;
+
+    public boolean isBoardFull() {
+        return emptyCells == 0;
+    }
+
+    // Count new SOS patterns through the cells placed since the last check
+    protected int countNewSOS(SOSGame.Player player) {
+        GameEvents.SosScan event = quiet ? null : new GameEvents.SosScan();
+        if (event != null) event.begin();
+        int cells = pendingCount;
+        int count = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            int r = pendingCells[i] / boardSize;
+            int c = pendingCells[i] % boardSize;
+            char letter = cellAt(r, c);
+
+            for (int d = 0; d < DIRS.length; d++) {
+                if (letter == 'O') {
+                    count += scoreLine(r, c, d, player);
+                } else if (letter == 'S') {
+                    // The S can be either end of the line
+                    count += scoreLine(r + DIRS[d][0], c + DIRS[d][1], d, player);
+                    count += scoreLine(r - DIRS[d][0], c - DIRS[d][1], d, player);
                 }
             }
-            if (!boardFull) break;
         }
-        
-        if (boardFull) {
+        pendingCount = 0;
+
+        if (event == null) return count;
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = player.getName();
+            event.cells = cells;
+            event.lines = count;
+            event.commit();
+        }
+        return count;
+    }
+
+    // Score the line centred on (midR, midC) in direction d if it spells SOS and is new
+    private int scoreLine(int midR, int midC, int d, SOSGame.Player player) {
+        int r1 = midR - DIRS[d][0];
+        int c1 = midC - DIRS[d][1];
+        int r3 = midR + DIRS[d][0];
+        int c3 = midC + DIRS[d][1];
+
+        if (!inBounds(r1, c1) || !inBounds(r3, c3)) return 0;
+        if (cellAt(r1, c1) != 'S' || cellAt(midR, midC) != 'O' || cellAt(r3, c3) != 'S') return 0;
+
+        if (tiles != null) {
+            if (tiles.isScored(midR, midC, d)) return 0;
+            tiles.setScored(midR, midC, d);
+        } else {
+            int key = (midR * boardSize + midC) * DIRS.length + d;
+            if (scoredLines.get(key)) return 0;
+            scoredLines.set(key);
+        }
+        if (loggingLines) logLine(midR * boardSize + midC, d);
+        if (!quiet) sosLines.add(new SOSGame.SOSLine(r1, c1, r3, c3, player.getName()));
+        return 1;
+    }
+   
+    public void checkGameStatus() {
+        if (isBoardFull()) {
             if (gameMode.equals("general")) {
                 if (blueScore > redScore) {
                     winner = "Blue";
@@ -137,6 +512,25 @@ public abstract class SOSGameBase {
         }
     }
 
+    private char letterAt(int r, int c) {
+        return inBounds(r, c) ? cellAt(r, c) : EMPTY;
+    }
+
+    private void logLine(int middle, int d) {
+        if (undoLineCount + 2 > undoLines.length) undoLines = Arrays.copyOf(undoLines, undoLines.length * 2);
+        undoLines[undoLineCount++] = middle;
+        undoLines[undoLineCount++] = d;
+    }
+
+    private void unmarkLine(int middle, int d) {
+        if (tiles != null) tiles.clearScored(middle / boardSize, middle % boardSize, d);
+        else scoredLines.clear(middle * DIRS.length + d);
+    }
+
+    private char cellAt(int r, int c) {
+        return board != null ? board[r][c] : tiles.get(r, c);
+    }
+
     private boolean inBounds(int r, int c) {
         return r >= 0 && r < boardSize && c >= 0 && c < boardSize;
     }
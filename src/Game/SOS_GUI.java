@@ -2,13 +2,19 @@ package Game;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class SOS_GUI extends JFrame {
     private SOSGameBase gameLogic;
     private JPanel setupPanel;
     private JPanel gamePanel;
-    private JButton[][] boardButtons;
     private BoardPanel boardPanel;
     private JLabel currentTurnLabel;
     private JComboBox<Integer> boardSizeCombo;
@@ -20,8 +26,12 @@ public class SOS_GUI extends JFrame {
     private JRadioButton blueComputerButton;
     private JRadioButton redHumanButton;
     private JRadioButton redComputerButton;
+    private JCheckBox ponderCheckBox;
 
     private char selectedLetter = ' ';
+    private ComputerSearch computerSearch;
+    // Finished games are appended here; opened on the first one
+    private GameLog gameLog;
 
     public SOS_GUI() {
         setTitle("SOS Game");
@@ -54,6 +64,7 @@ public class SOS_GUI extends JFrame {
         addBoardSizeSelector(panel, gbc);
         addGameModeSelector(panel, gbc);
         addPlayerTypeSelectors(panel, gbc); 
+        addPonderOption(panel, gbc);
         addStartButton(panel, gbc);
 
         return panel;
@@ -65,7 +76,7 @@ public class SOS_GUI extends JFrame {
         gbc.gridx = 0; gbc.gridy = 1;
         panel.add(boardSizeLabel, gbc);
 
-        Integer[] sizes = {3,4,5,6,7,8};
+        Integer[] sizes = {3,4,5,6,7,8,10,16,32,64,100,128,1000};
         boardSizeCombo = new JComboBox<>(sizes);
         boardSizeCombo.setSelectedIndex(3);
         gbc.gridx = 1; gbc.gridy = 1;
@@ -120,6 +131,13 @@ public class SOS_GUI extends JFrame {
         panel.add(redPanel, gbc);
     }
 
+    private void addPonderOption(JPanel panel, GridBagConstraints gbc) {
+        ponderCheckBox = new JCheckBox("Computer thinks during the human's turn");
+        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 2;
+        panel.add(ponderCheckBox, gbc);
+        gbc.gridwidth = 1;
+    }
+
     private void addStartButton(JPanel panel, GridBagConstraints gbc) {
         startGameButton = new JButton("Start Game");
         startGameButton.setFont(new Font("Arial", Font.BOLD, 14));
@@ -129,82 +147,160 @@ public class SOS_GUI extends JFrame {
             String mode = ((String) gameModeCombo.getSelectedItem()).toLowerCase();
             startGame(size, mode);
         });
-        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 2;
+        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 2;
         panel.add(startGameButton, gbc);
     }
 
     private void startGame(int boardSize, String gameMode) {
-        SOSGame.Player player1 = blueComputerButton.isSelected()
-                ? new SOSGame.ComputerPlayer("Blue")
-                : new SOSGame.HumanPlayer("Blue");
+        cancelComputerMove();
 
-        SOSGame.Player player2 = redComputerButton.isSelected()
-                ? new SOSGame.ComputerPlayer("Red")
-                : new SOSGame.HumanPlayer("Red");
+        SOSGame.Player player1 = createPlayer("Blue", blueComputerButton.isSelected(), boardSize);
+        SOSGame.Player player2 = createPlayer("Red", redComputerButton.isSelected(), boardSize);
 
         if (gameMode.equals("simple")) {
             gameLogic = new SimpleSOSGame(boardSize, player1, player2);
         } else {
             gameLogic = new GeneralSOSGame(boardSize, player1, player2);
         }
+        gameLogic.startRecording();
 
         showGameScreen();
 
         if (gameLogic.getCurrentPlayer() instanceof SOSGame.ComputerPlayer) {
             makeComputerMove();
+        } else {
+            ponderOnHumanTurn();
+        }
+    }
+
+    private SOSGame.Player createPlayer(String color, boolean isComputer, int boardSize) {
+        if (!isComputer) return new SOSGame.HumanPlayer(color);
+        SOSGame.ComputerPlayer computer = new SOSGame.ComputerPlayer(color);
+        // A full-width search on a big board never finishes; run MCTS for a second instead
+        if (boardSize > 8) {
+            computer.setTimeBudget(1000);
+            computer.setEngine(SOSGame.ComputerPlayer.Engine.MCTS);
+        }
+        computer.setPondering(ponderCheckBox.isSelected());
+        return computer;
+    }
+
+    // Let a computer opponent search likely replies while the human is to move
+    private void ponderOnHumanTurn() {
+        SOSGame.Player current = gameLogic.getCurrentPlayer();
+        SOSGame.Player opponent = gameLogic.getPlayer(current.getName().equals("Blue") ? "Red" : "Blue");
+        if (!(current instanceof SOSGame.ComputerPlayer) && opponent instanceof SOSGame.ComputerPlayer) {
+            ((SOSGame.ComputerPlayer) opponent).startPondering(gameLogic);
+        }
+    }
+
+    private void stopPondering() {
+        for (String color : new String[] {"Blue", "Red"}) {
+            if (gameLogic.getPlayer(color) instanceof SOSGame.ComputerPlayer) {
+                ((SOSGame.ComputerPlayer) gameLogic.getPlayer(color)).stopPondering();
+            }
         }
     }
     
+    // Search a copy of the game on a background thread so the EDT stays responsive
+    // and the board the UI reads is only ever changed here, on the EDT
     private void makeComputerMove() {
         setButtonsEnabled(false);
 
-        Timer timer = new Timer(500, e -> {
-            SOSGame.ComputerPlayer computer = (SOSGame.ComputerPlayer) gameLogic.getCurrentPlayer();
-            SOSGame.ComputerPlayer.Move move = computer.computeBestMove(gameLogic);
+        SOSGame.ComputerPlayer computer = (SOSGame.ComputerPlayer) gameLogic.getCurrentPlayer();
+        ComputerSearch search = new ComputerSearch(computer, gameLogic);
+        computerSearch = search;
+
+        // A reply found while pondering is played at once, otherwise pause so the move can be followed
+        int delay = computer.hasPonderedReply(gameLogic) ? 0 : 500;
+        Timer timer = new Timer(delay, e -> {
+            if (computerSearch == search) search.execute();
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
+
+    // Stop any running search, e.g. when the game it belongs to is abandoned
+    private void cancelComputerMove() {
+        if (gameLogic != null) stopPondering();
+        if (computerSearch != null) {
+            computerSearch.computer.cancelSearch();
+            computerSearch.cancel(false);
+            computerSearch = null;
+        }
+    }
 
-            if (move != null) {
-                gameLogic.getBoard()[move.row][move.col] = move.letter;
-                boardButtons[move.row][move.col].setText(String.valueOf(move.letter));
-                boardButtons[move.row][move.col].setForeground(
-                        computer.getName().equals("Blue") ? Color.BLUE : Color.RED);
-                boardButtons[move.row][move.col].setEnabled(false);
+    private class ComputerSearch extends SwingWorker<SOSGame.ComputerPlayer.Move, String> {
+        private final SOSGame.ComputerPlayer computer;
+        private final SOSGameBase position;
 
-                int newSOS = gameLogic.checkForNewSOS();
-                updateScores();
-                boardPanel.repaint();
+        ComputerSearch(SOSGame.ComputerPlayer computer, SOSGameBase game) {
+            this.computer = computer;
+            this.position = game.copy();
+        }
 
-                if (checkEndGame()) return; 
+        @Override
+        protected SOSGame.ComputerPlayer.Move doInBackground() {
+            computer.setSearchListener((depth, nodes, best) ->
+                    publish(String.format("depth %d, %,d nodes", depth, nodes)));
+            try {
+                return computer.computeBestMove(position);
+            } finally {
+                computer.setSearchListener(null);
+            }
+        }
 
-                if (gameLogic.getGameMode().equals("general") && newSOS > 0) {
-                    currentTurnLabel.setText("Current turn: " + computer.getName() + " (again!)");
-                    makeComputerMove(); 
-                } else {
-                    gameLogic.switchPlayer();
-                    currentTurnLabel.setText("Current turn: " + gameLogic.getCurrentPlayer().getName());
+        @Override
+        protected void process(List<String> progress) {
+            if (computerSearch != this) return;
+            currentTurnLabel.setText("Current turn: " + computer.getName()
+                    + " (thinking: " + progress.get(progress.size() - 1) + ")");
+        }
 
-                    if (gameLogic.getCurrentPlayer() instanceof SOSGame.ComputerPlayer) {
-                        makeComputerMove(); 
-                    } else {
-                        setButtonsEnabled(true);
-                    }
-                }
-            } else {
-                setButtonsEnabled(true);
+        @Override
+        protected void done() {
+            if (computerSearch != this || isCancelled()) return;
+            computerSearch = null;
+            try {
+                applyComputerMove(computer, get());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Computer search failed", e);
             }
-        });
-        timer.setRepeats(false);
-        timer.start();
+        }
     }
 
-    private void setButtonsEnabled(boolean enabled) {
-        for (int i = 0; i < boardButtons.length; i++) {
-            for (int j = 0; j < boardButtons[i].length; j++) {
-                if (gameLogic.getBoard()[i][j] == ' ') {
-                    boardButtons[i][j].setEnabled(enabled);
+    private void applyComputerMove(SOSGame.ComputerPlayer computer, SOSGame.ComputerPlayer.Move move) {
+        if (move != null) {
+            gameLogic.makeMove(move.row, move.col, move.letter);
+            boardPanel.markCell(move.row, move.col, computer.getName());
+
+            updateScores();
+            boardPanel.repaint();
+
+            if (checkEndGame()) return; 
+
+            // makeMove already passed the turn unless the SOS earned another one
+            if (gameLogic.getCurrentPlayer() == computer) {
+                currentTurnLabel.setText("Current turn: " + computer.getName() + " (again!)");
+                makeComputerMove(); 
+            } else {
+                currentTurnLabel.setText("Current turn: " + gameLogic.getCurrentPlayer().getName());
+
+                if (gameLogic.getCurrentPlayer() instanceof SOSGame.ComputerPlayer) {
+                    makeComputerMove(); 
+                } else {
+                    setButtonsEnabled(true);
+                    ponderOnHumanTurn();
                 }
             }
+        } else {
+            setButtonsEnabled(true);
         }
     }
+
+    private void setButtonsEnabled(boolean enabled) {
+        boardPanel.setInteractive(enabled);
+    }
     
     private void showGameScreen() {
         gamePanel = new JPanel(new BorderLayout(10, 10));
@@ -229,7 +325,7 @@ public class SOS_GUI extends JFrame {
     private JPanel createCenterPanel() {
         JPanel center = new JPanel(new BorderLayout());
         boardPanel = new BoardPanel(gameLogic.getBoardSize());
-        center.add(boardPanel, BorderLayout.CENTER);
+        center.add(boardPanel.createScrollPane(), BorderLayout.CENTER);
 
         JPanel left = createPlayerPanel("Blue");
         JPanel right = createPlayerPanel("Red");
@@ -257,6 +353,7 @@ public class SOS_GUI extends JFrame {
         JButton newGameButton = new JButton("New Game");
         newGameButton.setFont(new Font("Arial", Font.BOLD, 12));
         newGameButton.addActionListener(e -> {
+            cancelComputerMove();
             setContentPane(setupPanel);
             revalidate();
             repaint();
@@ -315,92 +412,224 @@ public class SOS_GUI extends JFrame {
     }
 
 
-    private class BoardPanel extends JPanel {
-        private int boardSize;
-        private JLayeredPane layeredPane;
-        private JPanel buttonGrid;
+    // One component paints the whole board. Clicks are mapped to cells by position,
+    // only cells inside the clip are drawn and glyphs are rendered once per cell size,
+    // so large boards stay smooth inside the scroll pane. Ctrl + mouse wheel zooms.
+    private class BoardPanel extends JComponent {
+        private static final int MIN_CELL = 4;
+        private static final int MAX_CELL = 160;
+        private static final Color GRID_COLOR = new Color(200, 200, 200);
+        private static final Color BLUE_LINE = new Color(0, 100, 255);
+        private static final Color RED_LINE = new Color(255, 0, 0);
+
+        private final int boardSize;
+        // Who placed each letter: 0 nobody, 1 Blue, 2 Red
+        private final byte[][] owners;
+        private boolean interactive = true;
+
+        private double zoom = 1.0;
+        private int cellSize = MIN_CELL;
+
+        // Cached for the current cell size: [letter S/O][owner Blue/Red]
+        private final BufferedImage[][] glyphs = new BufferedImage[2][2];
+        private int glyphCellSize = -1;
+        private Stroke lineStroke;
 
         public BoardPanel(int boardSize) {
             this.boardSize = boardSize;
-            setLayout(new BorderLayout());
-            setBackground(new Color(200, 200, 200));
-            setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-
-            layeredPane = new JLayeredPane();
-            layeredPane.setPreferredSize(new Dimension(400, 400));
-
-            // Button grid layer
-            buttonGrid = new JPanel(new GridLayout(boardSize, boardSize, 3, 3));
-            buttonGrid.setBackground(new Color(200, 200, 200));
-
-            boardButtons = new JButton[boardSize][boardSize];
-            for (int i = 0; i < boardSize; i++) {
-                for (int j = 0; j < boardSize; j++) {
-                    JButton btn = new JButton();
-                    btn.setFont(new Font("Arial", Font.BOLD, 24));
-                    btn.setBackground(Color.WHITE);
-                    btn.setFocusPainted(false);
-                    final int row = i;
-                    final int col = j;
-                    btn.addActionListener(e -> handleCellClick(row, col));
-                    boardButtons[i][j] = btn;
-                    buttonGrid.add(btn);
+            this.owners = new byte[boardSize][boardSize];
+            setOpaque(true);
+
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    int row = e.getY() / cellSize;
+                    int col = e.getX() / cellSize;
+                    if (interactive && row < boardSize && col < boardSize && gameLogic.getCell(row, col) == ' ') {
+                        handleCellClick(row, col);
+                    }
+                }
+            });
+            addMouseWheelListener(e -> {
+                if (e.isControlDown()) {
+                    zoomAt(e.getPoint(), e.getWheelRotation() < 0 ? 1.25 : 0.8);
+                } else if (getParent() != null) {
+                    // Let the scroll pane scroll
+                    Container scrollPane = SwingUtilities.getAncestorOfClass(JScrollPane.class, this);
+                    if (scrollPane != null) scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, scrollPane));
                 }
+            });
+        }
+
+        // The scroll pane to put the board in; the board fits its viewport at zoom 1
+        JScrollPane createScrollPane() {
+            JScrollPane scrollPane = new JScrollPane(this);
+            scrollPane.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+            scrollPane.getViewport().setBackground(GRID_COLOR);
+            scrollPane.getViewport().setPreferredSize(new Dimension(400, 400));
+            scrollPane.getViewport().addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentResized(ComponentEvent e) {
+                    updateCellSize();
+                }
+            });
+            return scrollPane;
+        }
+
+        void setInteractive(boolean interactive) {
+            this.interactive = interactive;
+            setCursor(Cursor.getPredefinedCursor(interactive ? Cursor.HAND_CURSOR : Cursor.DEFAULT_CURSOR));
+        }
+
+        // Record who played (row, col) and repaint just that cell
+        void markCell(int row, int col, String player) {
+            owners[row][col] = (byte) (player.equals("Blue") ? 1 : 2);
+            repaint(col * cellSize, row * cellSize, cellSize + gap(), cellSize + gap());
+        }
+
+        private int gap() {
+            return cellSize >= 24 ? 3 : 1;
+        }
+
+        private void updateCellSize() {
+            Container viewport = getParent();
+            if (viewport == null || viewport.getWidth() <= 0) return;
+            int fit = (Math.min(viewport.getWidth(), viewport.getHeight()) - 3) / boardSize;
+            int size = Math.max(MIN_CELL, Math.min(MAX_CELL, (int) Math.round(fit * zoom)));
+            if (size != cellSize) {
+                cellSize = size;
+                revalidate();
+                repaint();
             }
+        }
 
-            add(layeredPane, BorderLayout.CENTER);
+        // Zoom keeping the cell under the mouse in place
+        private void zoomAt(Point mouse, double factor) {
+            int oldCell = cellSize;
+            zoom = Math.max(0.05, Math.min(zoom * factor, 64));
+            updateCellSize();
+            if (cellSize == oldCell || !(getParent() instanceof JViewport)) return;
+
+            JViewport viewport = (JViewport) getParent();
+            Point view = viewport.getViewPosition();
+            double scale = (double) cellSize / oldCell;
+            int x = (int) Math.round(mouse.x * scale) - (mouse.x - view.x);
+            int y = (int) Math.round(mouse.y * scale) - (mouse.y - view.y);
+            setSize(getPreferredSize());
+            viewport.setViewPosition(new Point(Math.max(0, x), Math.max(0, y)));
         }
 
         @Override
-        public void doLayout() {
-            super.doLayout();
-            if (layeredPane != null && buttonGrid != null) {
-                Insets insets = getInsets();
-                int w = getWidth() - insets.left - insets.right;
-                int h = getHeight() - insets.top - insets.bottom;
-                
-                layeredPane.setBounds(insets.left, insets.top, w, h);
-                layeredPane.removeAll();
-                
-                buttonGrid.setBounds(0, 0, w, h);
-                layeredPane.add(buttonGrid, JLayeredPane.DEFAULT_LAYER);
-                
-                buttonGrid.revalidate();
-            }
+        public Dimension getPreferredSize() {
+            int pixels = boardSize * cellSize + gap();
+            return new Dimension(pixels, pixels);
         }
 
         @Override
         protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
+            GameEvents.Repaint event = new GameEvents.Repaint();
+            event.begin();
+            int cells = paintBoard(g);
+            event.end();
+            if (event.shouldCommit()) {
+                event.boardSize = boardSize;
+                event.cells = cells;
+                event.commit();
+            }
         }
 
-        @Override
-        public void paint(Graphics g) {
-            super.paint(g);
-            
+        // Paint the cells and lines inside the clip; returns the number of cells painted
+        private int paintBoard(Graphics g) {
             Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setStroke(new BasicStroke(4));
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+            int gap = gap();
+            int pixels = boardSize * cellSize + gap;
+
+            g2d.setColor(GRID_COLOR);
+            g2d.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+            // Visible cells only
+            int firstRow = Math.max(0, clip.y / cellSize);
+            int lastRow = Math.min(boardSize - 1, (clip.y + clip.height) / cellSize);
+            int firstCol = Math.max(0, clip.x / cellSize);
+            int lastCol = Math.min(boardSize - 1, (clip.x + clip.width) / cellSize);
+            if (firstRow > lastRow || firstCol > lastCol) return 0;
+
+            // White cells: one block, then the grid lines over it
+            int x0 = firstCol * cellSize + gap;
+            int y0 = firstRow * cellSize + gap;
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(x0, y0, Math.min(pixels, (lastCol + 1) * cellSize) - x0, Math.min(pixels, (lastRow + 1) * cellSize) - y0);
+            g2d.setColor(GRID_COLOR);
+            for (int r = firstRow; r <= lastRow + 1 && r <= boardSize; r++) {
+                g2d.fillRect(x0 - gap, r * cellSize, (lastCol - firstCol + 1) * cellSize + gap, gap);
+            }
+            for (int c = firstCol; c <= lastCol + 1 && c <= boardSize; c++) {
+                g2d.fillRect(c * cellSize, y0 - gap, gap, (lastRow - firstRow + 1) * cellSize + gap);
+            }
 
-            List<SOSGame.SOSLine> lines = gameLogic.getSOSLines();
-            for (SOSGame.SOSLine line : lines) {
-                if (line.player.equals("Blue")) {
-                    g2d.setColor(new Color(0, 100, 255));
-                } else {
-                    g2d.setColor(new Color(255, 0, 0));
+            for (int r = firstRow; r <= lastRow; r++) {
+                for (int c = firstCol; c <= lastCol; c++) {
+                    char letter = gameLogic.getCell(r, c);
+                    if (letter != ' ') drawLetter(g2d, letter, owners[r][c], c * cellSize + gap, r * cellSize + gap, cellSize - gap);
                 }
+            }
 
-                JButton startBtn = boardButtons[line.startRow][line.startCol];
-                JButton endBtn = boardButtons[line.endRow][line.endCol];
+            paintLines(g2d, clip);
+            return (lastRow - firstRow + 1) * (lastCol - firstCol + 1);
+        }
 
-                Point startLoc = SwingUtilities.convertPoint(startBtn.getParent(), startBtn.getX(), startBtn.getY(), this);
-                Point endLoc = SwingUtilities.convertPoint(endBtn.getParent(), endBtn.getX(), endBtn.getY(), this);
+        private void drawLetter(Graphics2D g2d, char letter, byte owner, int x, int y, int size) {
+            Color color = owner == 1 ? Color.BLUE : Color.RED;
+            if (size < 10) {
+                // Too small to read a glyph: S solid, O outlined
+                g2d.setColor(color);
+                if (letter == 'S') g2d.fillRect(x, y, size, size);
+                else g2d.drawRect(x, y, size - 1, size - 1);
+                return;
+            }
+            if (glyphCellSize != cellSize) buildGlyphs(size);
+            g2d.drawImage(glyphs[letter == 'S' ? 0 : 1][owner == 1 ? 0 : 1], x, y, null);
+        }
 
-                int startX = startLoc.x + startBtn.getWidth() / 2;
-                int startY = startLoc.y + startBtn.getHeight() / 2;
-                int endX = endLoc.x + endBtn.getWidth() / 2;
-                int endY = endLoc.y + endBtn.getHeight() / 2;
+        private void buildGlyphs(int size) {
+            Font font = new Font("Arial", Font.BOLD, Math.max(8, size * 2 / 5));
+            char[] letters = {'S', 'O'};
+            Color[] colors = {Color.BLUE, Color.RED};
+            for (int l = 0; l < 2; l++) {
+                for (int o = 0; o < 2; o++) {
+                    BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+                    Graphics2D g = image.createGraphics();
+                    g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                    g.setFont(font);
+                    g.setColor(colors[o]);
+                    FontMetrics metrics = g.getFontMetrics();
+                    String text = String.valueOf(letters[l]);
+                    g.drawString(text, (size - metrics.stringWidth(text)) / 2, (size - metrics.getHeight()) / 2 + metrics.getAscent());
+                    g.dispose();
+                    glyphs[l][o] = image;
+                }
+            }
+            lineStroke = new BasicStroke(Math.max(1, cellSize / 15f));
+            glyphCellSize = cellSize;
+        }
 
+        private void paintLines(Graphics2D g2d, Rectangle clip) {
+            if (glyphCellSize != cellSize) buildGlyphs(Math.max(1, cellSize - gap()));
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setStroke(lineStroke);
+
+            int half = (cellSize + gap()) / 2;
+            for (SOSGame.SOSLine line : gameLogic.getSOSLines()) {
+                int startX = line.startCol * cellSize + half;
+                int startY = line.startRow * cellSize + half;
+                int endX = line.endCol * cellSize + half;
+                int endY = line.endRow * cellSize + half;
+                if (Math.max(startX, endX) < clip.x || Math.min(startX, endX) > clip.x + clip.width
+                        || Math.max(startY, endY) < clip.y || Math.min(startY, endY) > clip.y + clip.height) continue;
+
+                g2d.setColor(line.player.equals("Blue") ? BLUE_LINE : RED_LINE);
                 g2d.drawLine(startX, startY, endX, endY);
             }
         }
@@ -417,17 +646,17 @@ public class SOS_GUI extends JFrame {
     private void handleCellClick(int row, int col) {
         if (!validateMove(row, col)) return;
 
+        SOSGame.Player mover = gameLogic.getCurrentPlayer();
         updateBoard(row, col);
-        int newSOS = gameLogic.checkForNewSOS();
+        gameLogic.makeMove(row, col, selectedLetter);
         updateScores();
         boardPanel.updateLines();
 
         if (checkEndGame()) return;
 
-        if (gameLogic.getGameMode().equals("general") && newSOS > 0) {
-            currentTurnLabel.setText("Current turn: " + gameLogic.getCurrentPlayer().getName() + " (again!)");
+        if (gameLogic.getCurrentPlayer() == mover) {
+            currentTurnLabel.setText("Current turn: " + mover.getName() + " (again!)");
         } else {
-            gameLogic.switchPlayer();
             currentTurnLabel.setText("Current turn: " + gameLogic.getCurrentPlayer().getName());
         }
 
@@ -436,6 +665,8 @@ public class SOS_GUI extends JFrame {
 
         if (gameLogic.getCurrentPlayer() instanceof SOSGame.ComputerPlayer) {
             makeComputerMove();
+        } else {
+            ponderOnHumanTurn();
         }
     }
 
@@ -456,8 +687,7 @@ public class SOS_GUI extends JFrame {
             JOptionPane.showMessageDialog(this, "Please select a letter first (S or O).");
             return false;
         }
-        SOSGame.Player current = gameLogic.getCurrentPlayer();
-        if (!current.makeMove(gameLogic, row, col, selectedLetter)) {
+        if (!gameLogic.isValidMove(row, col, selectedLetter)) {
             JOptionPane.showMessageDialog(this, "Invalid move! Cell is already occupied or out of bounds.");
             return false;
         }
@@ -465,9 +695,7 @@ public class SOS_GUI extends JFrame {
     }
 
     private void updateBoard(int row, int col) {
-        boardButtons[row][col].setText(String.valueOf(selectedLetter));
-        boardButtons[row][col].setEnabled(false);
-        boardButtons[row][col].setForeground(gameLogic.getCurrentPlayer().getName().equals("Blue") ? Color.BLUE : Color.RED);
+        boardPanel.markCell(row, col, gameLogic.getCurrentPlayer().getName());
     }
 
     private void updateScores() {
@@ -482,7 +710,9 @@ public class SOS_GUI extends JFrame {
     private boolean checkEndGame() {
         gameLogic.checkGameStatus();
         if (gameLogic.getWinner() != null || gameLogic.isDraw()) {
+            stopPondering();
             disableBoard();
+            recordGame();
             String message = gameLogic.getWinner() != null
                 ? "Game Over! Winner: " + gameLogic.getWinner() + "\nBlue: " + gameLogic.getBlueScore() + " | Red: " + gameLogic.getRedScore()
                 : "Game Over! It's a draw!\nBlue: " + gameLogic.getBlueScore() + " | Red: " + gameLogic.getRedScore();
@@ -496,14 +726,20 @@ public class SOS_GUI extends JFrame {
     }
 
 
-    private void disableBoard() {
-        for (int i = 0; i < boardButtons.length; i++) {
-            for (int j = 0; j < boardButtons[i].length; j++) {
-                boardButtons[i][j].setEnabled(false);
-            }
+    private void recordGame() {
+        try {
+            if (gameLog == null) gameLog = new GameLog(GameLog.DEFAULT_FILE);
+            gameLog.append(gameLogic.getRecord());
+            gameLog.flush();
+        } catch (IOException e) {
+            System.err.println("Could not record game: " + e.getMessage());
         }
     }
 
+    private void disableBoard() {
+        boardPanel.setInteractive(false);
+    }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(SOS_GUI::new);
     }
@@ -253,8 +253,642 @@ public class SOS_Test {
         assertTrue(game.getWinner() != null || game.isDraw(), "When board is full, there should be a winner or a draw");
     }
 
+    @Test
+    @DisplayName("General Mode: One move can complete several SOS, each scored once")
+    void testGeneralModeMultipleSOSScoredOnce() {
+        SOSGame.Player blue = new SOSGame.HumanPlayer("Blue");
+        SOSGame.Player red = new SOSGame.HumanPlayer("Red");
+        GeneralSOSGame game = new GeneralSOSGame(3, blue, red);
+
+        // S in every corner, then Blue puts O in the centre: both diagonals complete
+        game.getCurrentPlayer().makeMove(game, 0, 0, 'S');
+        game.checkForNewSOS();
+        game.getCurrentPlayer().makeMove(game, 0, 2, 'S');
+        game.checkForNewSOS();
+        game.getCurrentPlayer().makeMove(game, 2, 0, 'S');
+        game.checkForNewSOS();
+        game.getCurrentPlayer().makeMove(game, 2, 2, 'S');
+        game.checkForNewSOS();
+        game.getCurrentPlayer().makeMove(game, 1, 1, 'O');
+
+        assertEquals(2, game.checkForNewSOS(), "Both diagonals should be detected");
+        assertEquals(2, game.getBlueScore(), "Blue should score both diagonals");
+        assertEquals(0, game.checkForNewSOS(), "Already scored SOS should not be counted again");
+        assertEquals(2, game.getSOSLines().size(), "Each SOS should be recorded once");
+    }
+
+    @Test
+    @DisplayName("Transposition table: depth-preferred policy keeps the deeper entry")
+    void testTranspositionTableReplacement() {
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        TranspositionTable preferred = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        TranspositionTable always = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+
+        // Keys 2 and 4 share slot 0 in a two-entry table
+        for (TranspositionTable table : new TranspositionTable[] {preferred, always}) {
+            table.store(2L, 5, TranspositionTable.EXACT, 42, 7);
+            table.store(4L, 1, TranspositionTable.LOWER, -3, 1);
+        }
+
+        assertTrue(preferred.probe(2L, entry), "Deeper entry should survive a shallower store");
+        assertEquals(42, entry.value);
+        assertEquals(5, entry.depth);
+        assertEquals(7, entry.move);
+        assertFalse(preferred.probe(4L, entry), "Shallower entry should not replace a deeper one");
+
+        assertFalse(always.probe(2L, entry), "Always-replace should overwrite the old entry");
+        assertTrue(always.probe(4L, entry));
+        assertEquals(TranspositionTable.LOWER, entry.bound);
+        assertEquals(-3, entry.value);
+    }
+
+    @Test
+    @DisplayName("Pattern counts stay equal to a full board recount as cells change")
+    void testIncrementalPatternCounts() {
+        GeneralSOSGame game = new GeneralSOSGame(7, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+        java.util.Random random = new java.util.Random(3);
+        BitBoard bits = game.getBitBoard();
+
+        for (int i = 0; i < 200; i++) {
+            int r = random.nextInt(7);
+            int c = random.nextInt(7);
+            char letter = "SO ".charAt(random.nextInt(3));
+            game.setCell(r, c, letter);
+
+            assertEquals(bits.countWindows(BitBoard.S, BitBoard.O, BitBoard.S), game.getPatternCount(SOSGameBase.PATTERN_SOS));
+            assertEquals(bits.countWindows(BitBoard.S, BitBoard.EMPTY, BitBoard.S), game.getPatternCount(SOSGameBase.PATTERN_S_S));
+            assertEquals(bits.countWindows(BitBoard.S, BitBoard.O, BitBoard.EMPTY), game.getPatternCount(SOSGameBase.PATTERN_SO_));
+            assertEquals(bits.countWindows(BitBoard.EMPTY, BitBoard.O, BitBoard.S), game.getPatternCount(SOSGameBase.PATTERN__OS));
+        }
+    }
+
+    @Test
+    @DisplayName("General Mode: applyMove keeps the turn after an SOS and passes it otherwise")
+    void testApplyMoveTurnRules() {
+        GeneralSOSGame game = new GeneralSOSGame(3, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+
+        game.applyMove(0, 0, 'S');
+        assertEquals("Red", game.getCurrentPlayer().getName(), "No SOS: turn passes");
+        game.applyMove(0, 1, 'O');
+        assertEquals("Blue", game.getCurrentPlayer().getName());
+        assertEquals(1, game.applyMove(0, 2, 'S'), "Blue completes an SOS");
+        assertEquals("Blue", game.getCurrentPlayer().getName(), "SOS earns another turn");
+        assertEquals(1, game.getBlueScore());
+        assertFalse(game.isGameOver());
+    }
+
+    @Test
+    @DisplayName("Self-play simulator plays every requested game to the end")
+    void testSelfPlaySimulator() throws InterruptedException {
+        SelfPlaySimulator.Settings settings = SelfPlaySimulator.Settings.parse(
+                new String[] {"--size", "3", "--mode", "simple", "--games", "20", "--threads", "2", "--depth", "2"});
+
+        SelfPlaySimulator.Result result = new SelfPlaySimulator(settings).run();
+
+        assertEquals(20, result.games, "All games should be played");
+        assertEquals(20, result.blueWins + result.redWins + result.draws, "Every game should have an outcome");
+        assertTrue(result.moves >= 20, "Each game should have at least one move");
+    }
+
+    @Test
+    @DisplayName("Tournament alternates colours, reports Elo and stops early on an SPRT decision")
+    void testTournament() throws InterruptedException {
+        assertEquals(0, Tournament.elo(0.5), 1e-9);
+        assertEquals(190.85, Tournament.elo(0.75), 0.01);
+        assertEquals(-Tournament.elo(0.6), Tournament.elo(0.4), 1e-9);
+
+        Tournament.Settings settings = Tournament.Settings.parse(new String[] {"--sizes", "3,4", "--modes", "simple,general",
+                "--games", "16", "--threads", "2", "--a-depth", "2", "--b-depth", "1"});
+        Tournament.Result result = new Tournament(settings).run();
+
+        assertEquals(16, result.games(), "All games should be played");
+        assertEquals(8, result.gamesAsBlue, "A should play blue in half the games");
+        assertTrue(result.movesA > 0 && result.movesB > 0);
+        assertTrue(result.eloLow() <= result.elo() && result.elo() <= result.eloHigh());
+        assertNull(result.sprtDecision, "The SPRT is off by default");
+
+        // Equal engines score near 50%, far above what either hypothesis predicts
+        settings = Tournament.Settings.parse(new String[] {"--sizes", "4", "--modes", "general",
+                "--games", "400", "--threads", "2", "--a-depth", "1", "--b-depth", "1",
+                "--sprt-elo0", "-400", "--sprt-elo1", "-200"});
+        result = new Tournament(settings).run();
+
+        assertEquals("H1", result.sprtDecision, "The SPRT should accept the closer hypothesis");
+        assertTrue(result.games() < 400, "The match should stop early");
+    }
+
+    @Test
+    @DisplayName("Recorded self-play games replay to the same outcomes")
+    void testGameLogRecordsAndReplays() throws Exception {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("sos-games", ".sosr");
+        file.toFile().deleteOnExit();
+        SelfPlaySimulator.Settings settings = SelfPlaySimulator.Settings.parse(new String[] {"--size", "4", "--mode", "general",
+                "--games", "10", "--threads", "2", "--depth", "1", "--record", file.toString()});
+
+        SelfPlaySimulator.Result result = new SelfPlaySimulator(settings).run();
+
+        java.util.List<GameRecord> records = GameLog.read(file);
+        assertEquals(10, records.size(), "Every game should be recorded");
+        long moves = 0, blueWins = 0, blueScore = 0;
+        for (GameRecord record : records) {
+            assertEquals(4, record.getBoardSize());
+            assertEquals("general", record.getGameMode());
+            assertTrue(record.isComputer("Blue") && record.isComputer("Red"));
+
+            SOSGameBase game = record.replay();
+            assertTrue(game.isGameOver(), "A recorded game should replay to its end");
+            moves += record.getMoveCount();
+            blueScore += game.getBlueScore();
+            if ("Blue".equals(game.getWinner())) blueWins++;
+        }
+        assertEquals(result.moves, moves);
+        assertEquals(result.blueWins, blueWins);
+        assertEquals(result.blueScore, blueScore);
+    }
+
+    @Test
+    @DisplayName("Games on the largest allowed board record and replay exactly")
+    void testGameRecordAtMaxBoardSize() throws Exception {
+        int size = SOSGameBase.MAX_SIZE;
+        assertThrows(IllegalArgumentException.class,
+                () -> new SimpleSOSGame(size + 1, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red")));
+
+        GeneralSOSGame game = new GeneralSOSGame(size, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+        GameRecord record = game.startRecording();
+        int[][] moves = {{size - 1, size - 3, 'S'}, {0, 0, 'O'}, {size - 1, size - 2, 'O'}, {size - 1, size - 1, 'S'}};
+        for (int[] move : moves) game.applyMove(move[0], move[1], (char) move[2]);
+        assertEquals(1, game.getRedScore(), "The corner SOS should score");
+
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("sos-games", ".sosr");
+        file.toFile().deleteOnExit();
+        try (GameLog log = new GameLog(file)) {
+            log.append(record);
+        }
+        GameRecord read = GameLog.read(file).get(0);
+        assertEquals(size, read.getBoardSize());
+        for (int i = 0; i < moves.length; i++) {
+            assertEquals(moves[i][0], read.getRow(i), "Row of move " + i);
+            assertEquals(moves[i][1], read.getCol(i), "Column of move " + i);
+            assertEquals((char) moves[i][2], read.getLetter(i), "Letter of move " + i);
+        }
+        SOSGameBase replayed = read.replay();
+        assertEquals(game.getRedScore(), replayed.getRedScore());
+        assertEquals(game.getCanonicalHash(), replayed.getCanonicalHash());
+    }
+
+    @Test
+    @DisplayName("Tiled storage plays exactly like dense storage and stays sparse on huge boards")
+    void testTiledBoardStorage() {
+        java.util.Random random = new java.util.Random(3);
+        GeneralSOSGame dense = new GeneralSOSGame(9, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+        GeneralSOSGame tiled = new GeneralSOSGame(9, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"),
+                SOSGameBase.Storage.TILED);
+        assertEquals(SOSGameBase.Storage.DENSE, dense.getStorage());
+        while (!dense.isGameOver()) {
+            int row = random.nextInt(9), col = random.nextInt(9);
+            char letter = random.nextBoolean() ? 'S' : 'O';
+            if (!dense.isValidMove(row, col, letter)) continue;
+            assertEquals(dense.applyMove(row, col, letter), tiled.applyMove(row, col, letter));
+            assertEquals(dense.getCanonicalHash(), tiled.getCanonicalHash());
+            assertEquals(dense.getPatternCount(SOSGameBase.PATTERN_S_S), tiled.getPatternCount(SOSGameBase.PATTERN_S_S));
+        }
+        assertTrue(tiled.isGameOver());
+        assertEquals(dense.getBlueScore(), tiled.getBlueScore());
+        assertEquals(dense.getRedScore(), tiled.getRedScore());
+        assertArrayEquals(dense.getBoard(), tiled.copy().getBoard());
+
+        // 2000 x 2000: an SOS across a tile edge and a letter far away use three 64 x 64 tiles
+        SimpleSOSGame huge = new SimpleSOSGame(2000, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+        assertEquals(SOSGameBase.Storage.TILED, huge.getStorage());
+        huge.applyMove(1500, 63, 'S');
+        huge.applyMove(1999, 1999, 'O');
+        huge.applyMove(1500, 64, 'O');
+        assertEquals(1, huge.getTiles().getOccupancy(1500, 64));
+        SOSGame.ComputerPlayer computer = new SOSGame.ComputerPlayer("Red");
+        computer.setSeed(1);
+        SOSGame.ComputerPlayer.Move move = computer.computeBestMove(huge);
+        assertEquals(1500, move.row);
+        assertEquals(65, move.col);
+        assertEquals('S', move.letter);
+        huge.applyMove(move.row, move.col, move.letter);
+        assertEquals("Red", huge.getWinner(), "The SOS should be found without scanning the board");
+        assertEquals(3, huge.getTiles().getTileCount());
+        assertEquals(4, huge.getTiles().getFilledCount());
+
+        huge.setCell(1999, 1999, ' ');
+        assertEquals(2, huge.getTiles().getTileCount(), "An emptied tile should be freed");
+    }
+
+    @Test
+    @DisplayName("unmakeMove restores every part of the game state made by makeMove")
+    void testMakeUnmakeMove() {
+        for (SOSGameBase.Storage storage : SOSGameBase.Storage.values()) {
+            SOSGameBase[] games = {
+                new SimpleSOSGame(5, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"), storage),
+                new GeneralSOSGame(5, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"), storage)
+            };
+            for (SOSGameBase game : games) {
+                java.util.Random random = new java.util.Random(11);
+                java.util.List<String> states = new java.util.ArrayList<>();
+                java.util.List<int[]> moves = new java.util.ArrayList<>();
+                while (!game.isGameOver()) {
+                    int row = random.nextInt(5), col = random.nextInt(5);
+                    char letter = random.nextBoolean() ? 'S' : 'O';
+                    if (!game.isValidMove(row, col, letter)) continue;
+                    states.add(snapshot(game));
+                    game.makeMove(row, col, letter);
+                    moves.add(new int[] {row, col, letter});
+                }
+                String end = snapshot(game);
+                assertTrue(game.getSOSLines().size() > 0, "The random game should score");
+
+                // Take every move back, checking each earlier state on the way
+                for (int i = moves.size() - 1; i >= 0; i--) {
+                    game.unmakeMove();
+                    assertEquals(states.get(i), snapshot(game));
+                }
+                assertEquals(0, game.getUndoDepth());
+                assertEquals(0, game.getHash());
+                assertThrows(IllegalStateException.class, game::unmakeMove);
+
+                // Lines unmarked on the way back score again when replayed
+                for (int[] move : moves) game.makeMove(move[0], move[1], (char) move[2]);
+                assertEquals(end, snapshot(game));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Search plays extra turns through makeMove and leaves the game and its record alone")
+    void testSearchUsesMakeMove() {
+        SOSGame.ComputerPlayer computer = new SOSGame.ComputerPlayer("Blue");
+        computer.setEndgameThreshold(0);
+        computer.setOpeningBookDirectory(null);
+        computer.setMaxDepth(2);
+        GeneralSOSGame game = new GeneralSOSGame(5, computer, new SOSGame.HumanPlayer("Red"));
+        GameRecord record = game.startRecording();
+        game.applyMove(0, 0, 'S');
+        game.applyMove(0, 1, 'O');
+        game.applyMove(4, 0, 'S');
+        game.applyMove(4, 1, 'O');
+        assertSame(computer, game.getCurrentPlayer());
+
+        // Completing one SOS keeps the turn, so the reply searched is Blue's second SOS
+        SearchWorker worker = new SearchWorker(game.searchCopy(),
+                new TranspositionTable(12, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED),
+                new SearchControl(0, 0), true, true, false);
+        int score = worker.searchRootMove(new SOSGame.ComputerPlayer.Move(0, 2, 'S'), 2, Integer.MIN_VALUE);
+        assertTrue(score >= 200, "The extra turn should complete the second SOS, got " + score);
+
+        String before = snapshot(game);
+        SOSGame.ComputerPlayer.Move move = computer.computeBestMove(game);
+        assertNotNull(move);
+        assertEquals(before, snapshot(game), "Search should not change the game");
+        assertEquals(4, record.getMoveCount(), "Search should not touch the record");
+        assertEquals(0, game.getUndoDepth());
+
+        // Taking back a move made before recording started leaves the recorded moves alone
+        GeneralSOSGame late = new GeneralSOSGame(3, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+        late.makeMove(0, 0, 'S');
+        GameRecord lateRecord = late.startRecording();
+        late.applyMove(2, 2, 'S');
+        late.makeMove(1, 1, 'O');
+        late.unmakeMove();
+        assertEquals(1, lateRecord.getMoveCount(), "The recorded move should be taken off");
+        late.unmakeMove();
+        assertEquals(1, lateRecord.getMoveCount(), "The move before recording should not be taken off");
+        assertEquals(2, lateRecord.getRow(0));
+    }
+
+    @Test
+    @DisplayName("Alpha-beta through makeMove allocates nothing per node")
+    void testSearchAllocatesNothingPerNode() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        GeneralSOSGame game = new GeneralSOSGame(5, new SOSGame.ComputerPlayer("Blue"), new SOSGame.ComputerPlayer("Red"));
+        game.applyMove(0, 0, 'S');
+        game.applyMove(0, 1, 'O');
+        game.applyMove(2, 2, 'O');
+        game.applyMove(3, 3, 'S');
+        SearchWorker worker = new SearchWorker(game.searchCopy(),
+                new TranspositionTable(16, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED),
+                new SearchControl(0, 0), true, true, false);
+        java.util.List<SOSGame.ComputerPlayer.Move> moves = SOSGame.ComputerPlayer.getAllPossibleMoves(game);
+
+        // The first pass grows the per-ply buffers and the undo stack
+        for (int i = 0; i < moves.size(); i++) worker.searchRootMove(moves.get(i), 3, Integer.MIN_VALUE);
+
+        long nodes = worker.getStats().nodes;
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < moves.size(); i++) worker.searchRootMove(moves.get(i), 4, Integer.MIN_VALUE);
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        nodes = worker.getStats().nodes - nodes;
+
+        assertTrue(nodes > 10_000, "The search should be large enough to measure, got " + nodes + " nodes");
+        assertTrue(allocated < 16 * 1024, allocated + " bytes allocated over " + nodes + " nodes");
+    }
+
+    private static String snapshot(SOSGameBase game) {
+        StringBuilder sb = new StringBuilder();
+        for (char[] row : game.getBoard()) sb.append(row).append('/');
+        return sb + " " + game.getHash() + " " + game.getCanonicalHash() + " " + game.getBlueScore() + ":" + game.getRedScore()
+                + " lines=" + game.getSOSLines().size() + " empty=" + game.getEmptyCellCount()
+                + " turn=" + game.getCurrentPlayer().getName() + " winner=" + game.getWinner() + " draw=" + game.isDraw()
+                + " patterns=" + game.getPatternCount(SOSGameBase.PATTERN_SOS) + "," + game.getPatternCount(SOSGameBase.PATTERN_S_S)
+                + "," + game.getPatternCount(SOSGameBase.PATTERN_SO_) + "," + game.getPatternCount(SOSGameBase.PATTERN__OS);
+    }
+
+    @Test
+    @DisplayName("All 8 rotations and reflections of a board share one canonical hash")
+    void testBoardSymmetryCanonicalization() {
+        java.util.Random random = new java.util.Random(19);
+        GeneralSOSGame game = new GeneralSOSGame(5, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+        for (int i = 0; i < 9; i++) {
+            java.util.List<SOSGame.ComputerPlayer.Move> moves = SOSGame.ComputerPlayer.getAllPossibleMoves(game);
+            SOSGame.ComputerPlayer.Move move = moves.get(random.nextInt(moves.size()));
+            game.placeLetter(move.row, move.col, move.letter);
+        }
+        char[][] canonical = BoardSymmetry.canonicalBoard(game);
+
+        for (int t = 0; t < BoardSymmetry.COUNT; t++) {
+            char[][] image = BoardSymmetry.apply(t, game.getBoard());
+            assertArrayEquals(game.getBoard(), BoardSymmetry.apply(BoardSymmetry.inverse(t), image),
+                    "The inverse transform should restore the board");
+
+            GeneralSOSGame imageGame = new GeneralSOSGame(5, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+            for (int r = 0; r < 5; r++)
+                for (int c = 0; c < 5; c++)
+                    if (image[r][c] != ' ') imageGame.placeLetter(r, c, image[r][c]);
+
+            assertEquals(game.getCanonicalHash(), imageGame.getCanonicalHash(), "Transform " + t);
+            assertArrayEquals(canonical, BoardSymmetry.canonicalBoard(imageGame), "Transform " + t);
+        }
+    }
+
+    @Test
+    @DisplayName("Symmetric images of an even board evaluate and search the same")
+    void testEvenBoardEvaluationIsSymmetric() {
+        GeneralSOSGame inner = new GeneralSOSGame(4, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+        GeneralSOSGame mirrored = new GeneralSOSGame(4, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+        inner.placeLetter(2, 2, 'S');
+        mirrored.placeLetter(1, 1, 'S');
+        assertEquals(inner.getCanonicalHash(), mirrored.getCanonicalHash());
+        assertEquals(SOSGame.ComputerPlayer.evaluatePosition(inner), SOSGame.ComputerPlayer.evaluatePosition(mirrored),
+                "Both central cells should earn the center bonus");
+
+        java.util.Random random = new java.util.Random(4);
+        GeneralSOSGame game = new GeneralSOSGame(6, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+        for (int i = 0; i < 12; i++) {
+            java.util.List<SOSGame.ComputerPlayer.Move> moves = SOSGame.ComputerPlayer.getAllPossibleMoves(game);
+            SOSGame.ComputerPlayer.Move move = moves.get(random.nextInt(moves.size()));
+            game.applyMove(move.row, move.col, move.letter);
+        }
+        for (int t = 0; t < BoardSymmetry.COUNT; t++) {
+            char[][] image = BoardSymmetry.apply(t, game.getBoard());
+            GeneralSOSGame imageGame = new GeneralSOSGame(6, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+            for (int r = 0; r < 6; r++)
+                for (int c = 0; c < 6; c++)
+                    if (image[r][c] != ' ') imageGame.placeLetter(r, c, image[r][c]);
+            assertEquals(SOSGame.ComputerPlayer.evaluatePosition(game), SOSGame.ComputerPlayer.evaluatePosition(imageGame),
+                    "Transform " + t);
+        }
+
+        // Scores cached while searching one image must match a fresh search of the other
+        TranspositionTable shared = new TranspositionTable(16, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        SearchControl control = new SearchControl(0, 0);
+        SearchWorker first = new SearchWorker(inner, shared, control, true, true, false);
+        for (SOSGame.ComputerPlayer.Move move : SOSGame.ComputerPlayer.getAllPossibleMoves(inner)) {
+            first.searchRootMove(move, 3, Integer.MIN_VALUE);
+        }
+        SearchWorker cached = new SearchWorker(mirrored, shared, control, true, true, false);
+        SearchWorker fresh = new SearchWorker(mirrored,
+                new TranspositionTable(16, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED), control, true, true, false);
+        for (SOSGame.ComputerPlayer.Move move : SOSGame.ComputerPlayer.getAllPossibleMoves(mirrored)) {
+            assertEquals(fresh.searchRootMove(move, 3, Integer.MIN_VALUE), cached.searchRootMove(move, 3, Integer.MIN_VALUE),
+                    "Cached score of " + move);
+        }
+    }
+
+    @Test
+    @DisplayName("MCTS engine plays legal games with shared-tree threads and a tiny node pool")
+    void testMctsEngine() {
+        SOSGame.ComputerPlayer blue = new SOSGame.ComputerPlayer("Blue");
+        SOSGame.ComputerPlayer red = new SOSGame.ComputerPlayer("Red");
+        for (SOSGame.ComputerPlayer computer : new SOSGame.ComputerPlayer[] {blue, red}) {
+            computer.setEngine(SOSGame.ComputerPlayer.Engine.MCTS);
+            computer.setEndgameThreshold(0);
+            computer.setNodeBudget(2000);
+            computer.setSeed(20);
+        }
+        blue.setThreads(2);
+        red.setMctsNodeLimit(300);
+
+        GeneralSOSGame game = new GeneralSOSGame(5, blue, red);
+        game.applyMove(0, 0, 'S');
+        game.applyMove(0, 1, 'O');
+        SOSGame.ComputerPlayer.Move move = blue.computeBestMove(game);
+        assertEquals(0, move.row, "An open SOS should be completed");
+        assertEquals(2, move.col);
+        assertEquals('S', move.letter);
+
+        while (!game.isGameOver()) {
+            move = ((SOSGame.ComputerPlayer) game.getCurrentPlayer()).computeBestMove(game);
+            assertTrue(game.isValidMove(move.row, move.col, move.letter), "MCTS should only play legal moves");
+            game.applyMove(move.row, move.col, move.letter);
+        }
+        assertEquals(0, game.getEmptyCellCount());
+    }
+
+    @Test
+    @DisplayName("Search reports each completed depth and returns no move when cancelled")
+    void testSearchProgressAndCancel() {
+        SOSGame.ComputerPlayer computer = new SOSGame.ComputerPlayer("Blue");
+        GeneralSOSGame game = new GeneralSOSGame(4, computer, new SOSGame.HumanPlayer("Red"));
+        java.util.List<Integer> depths = new java.util.ArrayList<>();
+        computer.setSearchListener((depth, nodes, best) -> depths.add(depth));
+
+        assertNotNull(computer.computeBestMove(game), "Search should find a move");
+        assertEquals(java.util.List.of(1, 2, 3), depths, "Every iteration should be reported");
+
+        depths.clear();
+        computer.setSearchListener((depth, nodes, best) -> {
+            depths.add(depth);
+            computer.cancelSearch();
+        });
+        assertNull(computer.computeBestMove(game), "Cancelled search should not return a move");
+        assertEquals(java.util.List.of(1), depths, "Search should stop after the cancel");
+        assertEquals(16, game.getEmptyCellCount(), "Search should leave the board untouched");
+    }
+
+    @Test
+    @DisplayName("Pondered reply is played at once when the human makes the predicted move")
+    void testPonderingReusesPredictedReply() throws InterruptedException {
+        SOSGame.ComputerPlayer computer = new SOSGame.ComputerPlayer("Red");
+        GeneralSOSGame game = new GeneralSOSGame(4, new SOSGame.HumanPlayer("Blue"), computer);
+        computer.setPondering(true);
+        computer.startPondering(game);
+
+        SOSGameBase predicted = null;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (predicted == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            for (SOSGame.ComputerPlayer.Move move : SOSGame.ComputerPlayer.getAllPossibleMoves(game)) {
+                SOSGameBase after = game.copy();
+                after.applyMove(move.row, move.col, move.letter);
+                if (computer.hasPonderedReply(after)) predicted = after;
+            }
+        }
+        assertNotNull(predicted, "Pondering should find the reply to some human move");
+        assertEquals(16, game.getEmptyCellCount(), "Pondering should not touch the game");
+
+        SOSGame.ComputerPlayer.Move reply = computer.computeBestMove(predicted);
+        assertNotNull(reply, "Pondered reply should be returned");
+        assertTrue(predicted.isValidMove(reply.row, reply.col, reply.letter), "Reply should be legal");
+        assertTrue(computer.getLastSearchDepth() > 0, "Reply should come from a completed search");
+        assertFalse(computer.hasPonderedReply(predicted), "Pondering should stop once the human moved");
+    }
+
+    @Test
+    @DisplayName("Endgame positions are solved exactly while pondering is on")
+    void testPonderingLeavesEndgameToSolver() throws InterruptedException {
+        SOSGame.ComputerPlayer computer = new SOSGame.ComputerPlayer("Red");
+        computer.setOpeningBookDirectory(null);
+        computer.setPondering(true);
+        GeneralSOSGame game = new GeneralSOSGame(4, new SOSGame.HumanPlayer("Blue"), computer);
+        game.applyMove(0, 0, 'S');
+        game.applyMove(3, 3, 'O');
+        assertEquals(14, game.getEmptyCellCount());
+
+        computer.startPondering(game);
+        Thread.sleep(200);
+        game.applyMove(1, 2, 'S');
+        assertFalse(computer.hasPonderedReply(game), "Replies below the endgame threshold should not be pondered");
+
+        SOSGame.ComputerPlayer.Move move = computer.computeBestMove(game);
+        assertEquals("endgame", computer.getLastSearchStats().source, "Solver should decide the move");
+        assertEquals(13, computer.getLastSearchDepth(), "Solver should search to the end");
+
+        SOSGame.ComputerPlayer fresh = new SOSGame.ComputerPlayer("Red");
+        fresh.setOpeningBookDirectory(null);
+        SOSGame.ComputerPlayer.Move solved = fresh.computeBestMove(game);
+        assertEquals(solved.toString(), move.toString(), "Pondering should not change the solved move");
+    }
+
+    @Test
+    @DisplayName("Solved 3x3 book matches an exhaustive search with the real game rules")
+    void testOpeningBookMatchesExhaustiveSearch() throws java.io.IOException {
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("sos-book");
+        java.nio.file.Path file = new OpeningBookSolver(3, "general").write(dir);
+        file.toFile().deleteOnExit();
+        dir.toFile().deleteOnExit();
+
+        SOSGame.ComputerPlayer blue = new SOSGame.ComputerPlayer("Blue");
+        SOSGame.ComputerPlayer red = new SOSGame.ComputerPlayer("Red");
+        blue.setOpeningBookDirectory(dir);
+        red.setOpeningBookDirectory(dir);
+        java.util.Random random = new java.util.Random(3);
+
+        for (int trial = 0; trial < 20; trial++) {
+            GeneralSOSGame game = new GeneralSOSGame(3, blue, red);
+            for (int i = 0; i < 4; i++) {
+                java.util.List<SOSGame.ComputerPlayer.Move> moves = SOSGame.ComputerPlayer.getAllPossibleMoves(game);
+                SOSGame.ComputerPlayer.Move move = moves.get(random.nextInt(moves.size()));
+                game.applyMove(move.row, move.col, move.letter);
+            }
+            OpeningBook book = OpeningBook.forGame(dir, game);
+            assertNotNull(book, "Book should be found for 3x3 general");
+            assertEquals(exactMargin(game), book.value(game), "Book value should be the exact score margin");
+
+            SOSGame.ComputerPlayer.Move best = ((SOSGame.ComputerPlayer) game.getCurrentPlayer()).computeBestMove(game);
+            SOSGameBase next = game.copy();
+            int sos = next.applyMove(best.row, best.col, best.letter);
+            int achieved = sos > 0 ? sos + exactMargin(next) : -exactMargin(next);
+            assertEquals(book.value(game), achieved, "Book move should be optimal");
+        }
+    }
+
+    @Test
+    @DisplayName("Endgame solver plays the move with the best real score margin")
+    void testEndgameSolverIsExact() {
+        SOSGame.ComputerPlayer computer = new SOSGame.ComputerPlayer("Blue");
+        SOSGame.ComputerPlayer opponent = new SOSGame.ComputerPlayer("Red");
+        computer.setOpeningBookDirectory(null);
+        java.util.Random random = new java.util.Random(11);
+
+        for (int trial = 0; trial < 10; trial++) {
+            GeneralSOSGame game = new GeneralSOSGame(4, computer, opponent);
+            while (game.getEmptyCellCount() > 6 || game.getCurrentPlayer() != computer) {
+                java.util.List<SOSGame.ComputerPlayer.Move> moves = SOSGame.ComputerPlayer.getAllPossibleMoves(game);
+                SOSGame.ComputerPlayer.Move move = moves.get(random.nextInt(moves.size()));
+                game.applyMove(move.row, move.col, move.letter);
+                if (game.isGameOver()) game = new GeneralSOSGame(4, computer, opponent);
+            }
+
+            SOSGame.ComputerPlayer.Move best = computer.computeBestMove(game);
+            assertEquals(game.getEmptyCellCount(), computer.getLastSearchDepth(), "Solver should search to the end");
+
+            SOSGameBase next = game.copy();
+            int sos = next.applyMove(best.row, best.col, best.letter);
+            int achieved = sos > 0 ? sos + exactMargin(next) : -exactMargin(next);
+            assertEquals(exactMargin(game), achieved, "Solver move should keep the best margin");
+        }
+    }
+
+    // Best score margin still to be made by the side to move, by trying every line of play
+    private static int exactMargin(SOSGameBase game) {
+        if (game.isGameOver()) return 0;
+        int best = Integer.MIN_VALUE;
+        for (SOSGame.ComputerPlayer.Move move : SOSGame.ComputerPlayer.getAllPossibleMoves(game)) {
+            SOSGameBase next = game.copy();
+            int sos = next.applyMove(move.row, move.col, move.letter);
+            best = Math.max(best, sos > 0 ? sos + exactMargin(next) : -exactMargin(next));
+        }
+        return best;
+    }
+
+    @Test
+    @DisplayName("Empty-cell count follows every placement, copy and undo")
+    void testEmptyCellCount() {
+        GeneralSOSGame game = new GeneralSOSGame(3, new SOSGame.HumanPlayer("Blue"), new SOSGame.HumanPlayer("Red"));
+        assertEquals(9, game.getEmptyCellCount(), "New board should be all empty");
+
+        game.applyMove(0, 0, 'S');
+        game.setCell(1, 1, 'O');
+        game.setCell(1, 1, 'S');
+        assertEquals(7, game.getEmptyCellCount(), "Overwriting a letter should not change the count");
+        assertEquals(7, game.copy().getEmptyCellCount(), "Copy should carry the count");
+
+        game.setCell(1, 1, ' ');
+        assertEquals(8, game.getEmptyCellCount(), "Clearing a cell should restore the count");
+
+        for (int r = 0; r < 3; r++)
+            for (int c = 0; c < 3; c++)
+                if (game.getBoard()[r][c] == ' ') game.applyMove(r, c, 'O');
+        assertTrue(game.isBoardFull(), "Board should be full");
+        assertTrue(game.isGameOver(), "Full general board should end the game");
+    }
+
+    @Test
+    @DisplayName("Game server plays concurrent sessions from the load client to the end")
+    void testGameServerWithLoadClient() throws Exception {
+        GameServer.Settings serverSettings = GameServer.Settings.parse(
+                new String[] {"--port", "0", "--search-threads", "2", "--depth", "2"});
+        try (GameServer server = new GameServer(serverSettings)) {
+            int port = server.start();
+            GameLoadClient.Settings clientSettings = GameLoadClient.Settings.parse(new String[] {
+                    "--port", String.valueOf(port), "--connections", "8", "--games", "2", "--size", "3"});
+
+            GameLoadClient.Result result = new GameLoadClient(clientSettings).run();
+
+            assertEquals(16, result.games, "Every session should finish its games");
+            assertEquals(0, result.errors, "No request should be rejected");
+            assertTrue(result.moves >= 16 * 9, "Every game should fill the 3x3 board");
+            assertTrue(result.latencyMillis(0.99) >= result.latencyMillis(0.5), "Percentiles should be ordered");
+        }
+    }
+
     // AC for computer
-    
+
     @Test
     @DisplayName("AC 8.1 - Computer Player Type Verification")
     void testPlayerTypeVerification() {
@@ -362,6 +996,154 @@ public class SOS_Test {
         assertEquals(2, filledCells, "Should have exactly 2 filled cells after both moves");
     }
 
+    @Test
+    @DisplayName("AC 8.2 - Computer returns a legal move when its search budget runs out")
+    void testComputerMoveWithinNodeBudget() {
+        SOSGame.ComputerPlayer computer = new SOSGame.ComputerPlayer("Blue");
+        computer.setNodeBudget(2000);
+        GeneralSOSGame game = new GeneralSOSGame(8, computer, new SOSGame.HumanPlayer("Red"));
+
+        SOSGame.ComputerPlayer.Move move = computer.computeBestMove(game);
+
+        assertNotNull(move, "A move should be returned even when the budget is exhausted");
+        assertEquals(' ', game.getBoard()[move.row][move.col], "Move should target an empty cell");
+        assertTrue(computer.getLastSearchDepth() >= 1, "At least one depth should complete");
+        assertEquals(64, countEmptyCells(game), "Searching should leave the board unchanged");
+    }
+
+    @Test
+    @DisplayName("AC 8.2 - Seeded search is reproducible and parallel search plays legal moves")
+    void testSeededAndParallelSearch() {
+        SOSGame.ComputerPlayer first = new SOSGame.ComputerPlayer("Blue");
+        SOSGame.ComputerPlayer second = new SOSGame.ComputerPlayer("Blue");
+        first.setSeed(17);
+        second.setSeed(17);
+        GeneralSOSGame game = new GeneralSOSGame(5, first, new SOSGame.HumanPlayer("Red"));
+
+        SOSGame.ComputerPlayer.Move a = first.computeBestMove(game);
+        SOSGame.ComputerPlayer.Move b = second.computeBestMove(game);
+        assertEquals(a.row, b.row, "Same seed should give the same move");
+        assertEquals(a.col, b.col, "Same seed should give the same move");
+        assertEquals(a.letter, b.letter, "Same seed should give the same move");
+
+        SOSGame.ComputerPlayer parallel = new SOSGame.ComputerPlayer("Blue");
+        parallel.setThreads(4);
+        SOSGame.ComputerPlayer.Move move = parallel.computeBestMove(game);
+        assertNotNull(move, "Parallel search should find a move");
+        assertEquals(25, countEmptyCells(game), "Parallel search should not touch the game board");
+    }
+
+    @Test
+    @DisplayName("AC 8.2 - Move ordering reduces the nodes searched")
+    void testMoveOrderingReducesNodes() {
+        SOSGame.Player human = new SOSGame.HumanPlayer("Red");
+        long[] nodes = new long[2];
+        for (int i = 0; i < 2; i++) {
+            SOSGame.ComputerPlayer computer = new SOSGame.ComputerPlayer("Blue");
+            computer.setSeed(5);
+            computer.setMaxDepth(3);
+            computer.setMoveOrdering(i == 1);
+            GeneralSOSGame game = new GeneralSOSGame(6, computer, human);
+            human.makeMove(game, 2, 2, 'S');
+            human.makeMove(game, 2, 3, 'O');
+            human.makeMove(game, 4, 1, 'S');
+
+            computer.computeBestMove(game);
+            SearchStats stats = computer.getLastSearchStats();
+            assertEquals(3, stats.getDepth(), "Search should reach the requested depth");
+            assertTrue(stats.getCutoffs() > 0, "Alpha-beta should produce cutoffs");
+            nodes[i] = stats.getNodes();
+        }
+        assertTrue(nodes[1] < nodes[0], "Ordered search should visit fewer nodes than unordered search");
+    }
+
+    @Test
+    @DisplayName("AC 8.2 - Detailed search stats add up and reach the metrics registry")
+    void testDetailedSearchStats() {
+        SearchMetrics metrics = new SearchMetrics();
+        SearchStats[] results = new SearchStats[2];
+        for (int i = 0; i < 2; i++) {
+            SOSGame.Player human = new SOSGame.HumanPlayer("Red");
+            SOSGame.ComputerPlayer computer = new SOSGame.ComputerPlayer("Blue");
+            computer.setSeed(5);
+            computer.setMaxDepth(3);
+            computer.setDetailedStats(i == 1);
+            computer.setMetrics(i == 1 ? metrics : null);
+            GeneralSOSGame game = new GeneralSOSGame(6, computer, human);
+            human.makeMove(game, 2, 2, 'S');
+            human.makeMove(game, 2, 3, 'O');
+
+            computer.computeBestMove(game);
+            results[i] = computer.getLastSearchStats();
+        }
+        SearchStats plain = results[0], detailed = results[1];
+
+        assertFalse(plain.isDetailed());
+        assertEquals(0, plain.getLeafEvaluations());
+        assertTrue(detailed.isDetailed());
+        assertEquals(plain.getNodes(), detailed.getNodes(), "Detail should not change the search");
+        assertTrue(detailed.getElapsedNanos() > 0);
+
+        long plyNodes = 0, plyCutoffs = 0, depthNodes = 0;
+        for (int ply = 0; ply <= detailed.getMaxPly(); ply++) {
+            plyNodes += detailed.getNodesAtPly(ply);
+            plyCutoffs += detailed.getCutoffsAtPly(ply);
+        }
+        for (int depth = 1; depth <= detailed.getDepth(); depth++) depthNodes += detailed.getNodesForDepth(depth);
+        assertEquals(detailed.getNodes(), plyNodes);
+        assertEquals(detailed.getCutoffs(), plyCutoffs);
+        assertEquals(detailed.getNodes(), depthNodes, "Every iteration completes, so their nodes add up");
+        assertTrue(detailed.getLeavesAtPly(3) > 0 && detailed.getLeafEvaluations() <= detailed.getNodes());
+        assertTrue(detailed.getBranchingFactorAtDepth(3) > 1);
+        assertTrue(detailed.getTableHits() > 0 && detailed.getTableHits() <= detailed.getTableProbes());
+
+        assertEquals(1, metrics.getCount("moves.alpha-beta"));
+        assertEquals(detailed.getNodes(), metrics.getCount("nodes"));
+        assertEquals(1, metrics.histogram("move.micros").getCount());
+        assertEquals(detailed.getTableHitRate(), metrics.getTableHitRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("AC 8.3 - A flight recording captures moves, SOS scans and searches")
+    void testFlightRecorderEvents() throws Exception {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("sos", ".jfr");
+        file.toFile().deleteOnExit();
+        SOSGame.ComputerPlayer blue = new SOSGame.ComputerPlayer("Blue");
+        SOSGame.ComputerPlayer red = new SOSGame.ComputerPlayer("Red");
+        blue.setMaxDepth(2);
+        red.setMaxDepth(2);
+        SimpleSOSGame game = new SimpleSOSGame(4, blue, red);
+
+        int moves = 0;
+        try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+            for (String name : new String[] {"sos.MoveApplied", "sos.SOSScan", "sos.SearchStarted", "sos.Search"}) {
+                recording.enable(name);
+            }
+            recording.start();
+            while (!game.isGameOver()) {
+                SOSGame.ComputerPlayer player = (SOSGame.ComputerPlayer) game.getCurrentPlayer();
+                SOSGame.ComputerPlayer.Move move = player.computeBestMove(game);
+                game.applyMove(move.row, move.col, move.letter);
+                moves++;
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        java.util.Map<String, Integer> counts = new java.util.HashMap<>();
+        int lines = 0;
+        for (jdk.jfr.consumer.RecordedEvent event : jdk.jfr.consumer.RecordingFile.readAllEvents(file)) {
+            counts.merge(event.getEventType().getName(), 1, Integer::sum);
+            if (event.getEventType().getName().equals("sos.SOSScan")) lines += event.getInt("lines");
+            if (event.getEventType().getName().equals("sos.Search")) assertNotNull(event.getString("move"));
+        }
+        assertEquals(moves, counts.get("sos.MoveApplied"));
+        assertEquals(moves, counts.get("sos.SOSScan"));
+        assertEquals(moves, counts.get("sos.SearchStarted"));
+        assertEquals(moves, counts.get("sos.Search"));
+        assertEquals(game.getBlueScore() + game.getRedScore(), lines, "Scans should report every SOS scored");
+    }
+
     @Test
     @DisplayName("AC 8.3 - Computer vs Computer in Simple Mode")
     void testComputerVsComputerSimpleMode() {
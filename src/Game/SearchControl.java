@@ -0,0 +1,47 @@
+package Game;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Budget and stop flag shared by every worker of one search
+class SearchControl {
+
+    // Workers report nodes to the shared counter in batches of this size
+    static final int CHECK_INTERVAL = 1024;
+
+    private final long deadline;
+    private final long timeBudgetMillis;
+    private final long nodeBudget;
+    private final AtomicLong nodes = new AtomicLong();
+
+    private volatile boolean aborted = false;
+    private volatile boolean cancelled = false;
+    private volatile boolean budgetActive = false;
+
+    SearchControl(long timeBudgetMillis, long nodeBudget) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.nodeBudget = nodeBudget;
+        this.deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+    }
+
+    boolean hasBudget() { return timeBudgetMillis > 0 || nodeBudget > 0; }
+    boolean isAborted() { return aborted; }
+    boolean isCancelled() { return cancelled; }
+    long getNodes() { return nodes.get(); }
+
+    void setBudgetActive(boolean active) { this.budgetActive = active; }
+
+    // Stop every worker at its next node, even during the first iteration
+    void cancel() {
+        cancelled = true;
+        aborted = true;
+    }
+
+    void addNodes(long count) {
+        long total = nodes.addAndGet(count);
+        if (!budgetActive) return;
+        if ((nodeBudget > 0 && total >= nodeBudget)
+                || (timeBudgetMillis > 0 && System.nanoTime() - deadline >= 0)) {
+            aborted = true;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package Game;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Registry that aggregates the SearchStats of many moves into counters and
+// histograms, e.g. over a whole self-play run. Players push into it after every
+// move once given one with ComputerPlayer.setMetrics; any number of players on
+// any number of threads may share a registry.
+public class SearchMetrics {
+
+    // Counts values in power-of-two buckets: bucket b holds values below 2^b
+    public static class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long value) {
+            value = Math.max(0, value);
+            buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value));
+            count.increment();
+            sum.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        public long getCount() { return count.sum(); }
+        public long getMax() { return max.get(); }
+
+        public double getMean() {
+            long n = getCount();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        // Upper bound of the bucket holding the given fraction of values, e.g. 0.99
+        public long getPercentile(double fraction) {
+            long target = (long) Math.ceil(fraction * getCount());
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += buckets.get(b);
+                if (seen >= target && seen > 0) return b == 0 ? 0 : Math.min((1L << b) - 1, getMax());
+            }
+            return getMax();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1f p50<=%d p99<=%d max=%d",
+                    getCount(), getMean(), getPercentile(0.5), getPercentile(0.99), getMax());
+        }
+    }
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    public void count(String name, long amount) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).add(amount);
+    }
+
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    // Fold in the stats of one move
+    public void record(SearchStats stats) {
+        count("moves." + stats.source, 1);
+        count("nodes", stats.nodes);
+        count("cutoffs", stats.cutoffs);
+        histogram("move.micros").record(stats.elapsedNanos / 1000);
+        histogram("move.nodes").record(stats.nodes);
+        histogram("move.depth").record(stats.depth);
+        if (stats.elapsedNanos > 0 && stats.nodes > 0) {
+            histogram("nodes.per.second").record((long) stats.getNodesPerSecond());
+        }
+        if (stats.isDetailed()) {
+            count("leaves", stats.leaves);
+            count("table.probes", stats.tableProbes);
+            count("table.hits", stats.tableHits);
+            for (int ply = 0; ply < stats.plyCutoffs.length; ply++) {
+                if (stats.plyNodes[ply] == 0) continue;
+                count("ply." + ply + ".nodes", stats.plyNodes[ply]);
+                count("ply." + ply + ".cutoffs", stats.plyCutoffs[ply]);
+            }
+        }
+    }
+
+    // Share of table probes that found an entry, over every recorded move
+    public double getTableHitRate() {
+        long probes = getCount("table.probes");
+        return probes == 0 ? 0 : (double) getCount("table.hits") / probes;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            sb.append(String.format("%-18s %s%n", entry.getKey(), entry.getValue()));
+        }
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            sb.append(String.format("%-18s %d%n", entry.getKey(), entry.getValue().sum()));
+        }
+        if (getCount("table.probes") > 0) sb.append(String.format("%-18s %.3f%n", "table.hit.rate", getTableHitRate()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package Game;
+
+// Counters collected by one search, used to judge how well moves are ordered.
+// Nodes and cutoffs are always counted. Leaf evaluations, table probes and the
+// per-ply and per-depth breakdowns are only counted in detailed stats (see
+// ComputerPlayer.setDetailedStats); otherwise the searches skip them entirely.
+public class SearchStats {
+
+    long nodes;
+    long cutoffs;
+    long firstMoveCutoffs;
+    int depth;
+    String source = "alpha-beta";
+    long elapsedNanos;
+
+    // Detailed counters; the arrays are null unless detailed
+    long leaves;
+    long tableProbes;
+    long tableHits;
+    final long[] plyNodes;
+    final long[] plyLeaves;
+    final long[] plyCutoffs;
+    // Nodes and time spent on each iteration of iterative deepening, by depth
+    final long[] depthNodes;
+    final long[] depthNanos;
+
+    public SearchStats() {
+        this(-1);
+    }
+
+    // Detailed stats for a search at most maxPly plies deep; -1 for plain stats
+    SearchStats(int maxPly) {
+        int length = maxPly + 1;
+        plyNodes = length > 0 ? new long[length] : null;
+        plyLeaves = length > 0 ? new long[length] : null;
+        plyCutoffs = length > 0 ? new long[length] : null;
+        depthNodes = length > 0 ? new long[length] : null;
+        depthNanos = length > 0 ? new long[length] : null;
+    }
+
+    public boolean isDetailed() { return plyNodes != null; }
+
+    public long getNodes() { return nodes; }
+    public long getCutoffs() { return cutoffs; }
+    public long getFirstMoveCutoffs() { return firstMoveCutoffs; }
+    public int getDepth() { return depth; }
+
+    // Where the move came from: book, ponder, endgame, alpha-beta or mcts
+    public String getSource() { return source; }
+
+    // Wall time of the computeBestMove call that produced these stats
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    public long getLeafEvaluations() { return leaves; }
+    public long getTableProbes() { return tableProbes; }
+    public long getTableHits() { return tableHits; }
+
+    public double getTableHitRate() {
+        return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+    }
+
+    public int getMaxPly() { return plyNodes == null ? -1 : plyNodes.length - 1; }
+    public long getNodesAtPly(int ply) { return plyNodes == null ? 0 : plyNodes[ply]; }
+    public long getLeavesAtPly(int ply) { return plyLeaves == null ? 0 : plyLeaves[ply]; }
+    public long getCutoffsAtPly(int ply) { return plyCutoffs == null ? 0 : plyCutoffs[ply]; }
+
+    // Nodes and nanoseconds spent on the iteration that searched to depth
+    public long getNodesForDepth(int depth) { return depthNodes == null ? 0 : depthNodes[depth]; }
+    public long getNanosForDepth(int depth) { return depthNanos == null ? 0 : depthNanos[depth]; }
+
+    // Growth in work from the previous iteration to this one
+    public double getBranchingFactorAtDepth(int depth) {
+        if (depthNodes == null || depth < 2 || depthNodes[depth - 1] == 0) return 0;
+        return (double) depthNodes[depth] / depthNodes[depth - 1];
+    }
+
+    // Share of cutoffs produced by the first move tried; close to 1 means good ordering
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    // Branching factor b such that b^depth equals the nodes searched
+    public double getEffectiveBranchingFactor() {
+        return depth == 0 || nodes == 0 ? 0 : Math.pow(nodes, 1.0 / depth);
+    }
+
+    void add(SearchStats other) {
+        nodes += other.nodes;
+        cutoffs += other.cutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        leaves += other.leaves;
+        tableProbes += other.tableProbes;
+        tableHits += other.tableHits;
+        if (isDetailed() && other.isDetailed()) {
+            int length = Math.min(plyNodes.length, other.plyNodes.length);
+            for (int i = 0; i < length; i++) {
+                plyNodes[i] += other.plyNodes[i];
+                plyLeaves[i] += other.plyLeaves[i];
+                plyCutoffs[i] += other.plyCutoffs[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        String text = String.format("source=%s depth=%d nodes=%d cutoffs=%d firstMoveCutoffRate=%.3f ebf=%.2f time=%.2fms",
+                source, depth, nodes, cutoffs, getFirstMoveCutoffRate(), getEffectiveBranchingFactor(), elapsedNanos / 1e6);
+        if (!isDetailed()) return text;
+        return text + String.format(" leaves=%d tableHitRate=%.3f", leaves, getTableHitRate());
+    }
+}
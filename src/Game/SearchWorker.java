@@ -0,0 +1,246 @@
+package Game;
+
+import java.util.Arrays;
+
+import Game.SOSGame.ComputerPlayer.Move;
+
+// Alpha-beta search over one game state. Each thread of a parallel search owns a
+// worker with its own copy of the game; the transposition table and the budget
+// are shared.
+//
+// Inside the tree moves are ints (2 * cell for S, 2 * cell + 1 for O) held in
+// buffers allocated once per ply, so the search loop itself allocates nothing but the
+// SOSLine of each line a move scores.
+// Table entries are keyed by the canonical orientation of the board, with their
+// moves stored in that orientation, so all 8 symmetric images share one entry.
+//
+// Moves are played with makeMove/unmakeMove, so scores, the end of a simple game and
+// the extra turn after a general-mode SOS follow the real rules; a node maximizes
+// when the game has the computer to move.
+class SearchWorker {
+
+    private final SOSGameBase game;
+    private final int boardSize;
+    private final TranspositionTable table;
+    private final SearchControl control;
+    private final TranspositionTable.Entry entry = new TranspositionTable.Entry();
+    private final int[][] symmetryMaps;
+
+    // Side whose moves maximize
+    private final boolean computerIsBlue;
+
+    // Ordering tiers: hash move, then SOS-completing moves, then killers, then history
+    private static final int HASH_MOVE_SCORE = Integer.MAX_VALUE;
+    private static final int COMPLETES_SOS_SCORE = 1 << 30;
+    private static final int KILLER_SCORE = 1 << 29;
+
+    private final boolean moveOrdering;
+    private int[][] killers = new int[0][];
+    private final int[] history;
+
+    // Move and ordering-score buffers, one pair per ply
+    private final int maxMoves;
+    private int[][] moveStack = new int[0][];
+    private int[][] scoreStack = new int[0][];
+
+    private final SearchStats stats;
+    private final boolean detailed;
+    private int pendingNodes = 0;
+
+    SearchWorker(SOSGameBase game, TranspositionTable table, SearchControl control,
+                 boolean computerIsBlue, boolean moveOrdering, boolean detailed) {
+        this.game = game;
+        this.boardSize = game.getBoardSize();
+        this.table = table;
+        this.control = control;
+        this.computerIsBlue = computerIsBlue;
+        this.moveOrdering = moveOrdering;
+        this.history = new int[boardSize * boardSize * 2];
+        this.maxMoves = boardSize * boardSize * 2;
+        this.symmetryMaps = game.getSymmetryMaps();
+        this.detailed = detailed;
+        this.stats = detailed ? new SearchStats(game.getEmptyCellCount()) : new SearchStats();
+    }
+
+    SOSGameBase getGame() { return game; }
+    SearchStats getStats() { return stats; }
+    boolean isAborted() { return control.isAborted(); }
+
+    // Value of playing move at the root, searched with the given lower bound
+    int searchRootMove(Move move, int depth, int alpha) {
+        ensurePly(depth);
+        game.makeMove(move.row, move.col, move.letter);
+
+        int score = minimax(depth - 1, 1, alpha, Integer.MAX_VALUE);
+
+        game.unmakeMove();
+        return score;
+    }
+
+    // Hand the nodes counted since the last report to the shared counter
+    void flushNodes() {
+        control.addNodes(pendingNodes);
+        pendingNodes = 0;
+    }
+
+    // Minimax algol w/ alpha-beta pruning, a transposition table and move ordering
+    private int minimax(int depth, int ply, int alpha, int beta) {
+        stats.nodes++;
+        if (detailed) stats.plyNodes[ply]++;
+        if (++pendingNodes == SearchControl.CHECK_INTERVAL) {
+            flushNodes();
+        }
+        if (control.isAborted()) {
+            return 0;
+        }
+
+        if (depth == 0 || game.isGameOver()) {
+            if (detailed) countLeaf(ply);
+            return SOSGame.ComputerPlayer.evaluatePosition(game);
+        }
+
+        boolean blueToMove = game.isBlueToMove();
+        boolean isMaximizing = blueToMove == computerIsBlue;
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+        int symmetry = game.getCanonicalTransform();
+        long key = positionKey(symmetry, blueToMove);
+        int hashMove = TranspositionTable.NO_MOVE;
+
+        if (detailed) stats.tableProbes++;
+        if (table.probe(key, entry)) {
+            if (detailed) stats.tableHits++;
+            hashMove = mapMove(BoardSymmetry.inverse(symmetry), entry.move);
+            if (entry.depth >= depth) {
+                if (entry.bound == TranspositionTable.EXACT) return entry.value;
+                if (entry.bound == TranspositionTable.LOWER) alpha = Math.max(alpha, entry.value);
+                else beta = Math.min(beta, entry.value);
+                if (beta <= alpha) return entry.value;
+            }
+        }
+
+        int[] moves = moveStack[ply];
+        int[] scores = scoreStack[ply];
+        int count = game.getBitBoard().generateMoves(moves);
+        if (count == 0) {
+            if (detailed) countLeaf(ply);
+            return SOSGame.ComputerPlayer.evaluatePosition(game);
+        }
+        for (int i = 0; i < count; i++) {
+            scores[i] = orderScore(moves[i], hashMove, ply, isMaximizing);
+        }
+
+        int best = isMaximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestMove = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            pickNext(moves, scores, count, i);
+            int move = moves[i];
+            int row = (move >>> 1) / boardSize;
+            int col = (move >>> 1) % boardSize;
+            game.makeMove(row, col, letterOf(move));
+
+            int eval = minimax(depth - 1, ply + 1, alpha, beta);
+
+            game.unmakeMove();
+            if (control.isAborted()) return 0;
+
+            if (isMaximizing ? eval > best : eval < best) {
+                best = eval;
+                bestMove = move;
+            }
+            if (isMaximizing) alpha = Math.max(alpha, eval);
+            else beta = Math.min(beta, eval);
+            if (beta <= alpha) {
+                stats.cutoffs++;
+                if (i == 0) stats.firstMoveCutoffs++;
+                if (detailed) stats.plyCutoffs[ply]++;
+                if (moveOrdering && scores[i] < COMPLETES_SOS_SCORE) {
+                    recordQuietCutoff(move, ply, depth);
+                }
+                break;
+            }
+        }
+
+        int bound = best <= alphaOrig ? TranspositionTable.UPPER
+                : best >= betaOrig ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        table.store(key, depth, bound, best, mapMove(symmetry, bestMove));
+        return best;
+    }
+
+    private void countLeaf(int ply) {
+        stats.leaves++;
+        stats.plyLeaves[ply]++;
+    }
+
+    // evaluatePosition and isGameOver depend only on the board, so the scores are left
+    // out and entries carry over from one move's search to the next
+    private long positionKey(int symmetry, boolean blueToMove) {
+        return game.symmetricHashes[symmetry] ^ (blueToMove ? Zobrist.BLUE_TO_MOVE : 0);
+    }
+
+    private int mapMove(int symmetry, int move) {
+        return move == TranspositionTable.NO_MOVE ? move : BoardSymmetry.mapMove(symmetry, move, symmetryMaps);
+    }
+
+    private static char letterOf(int move) {
+        return (move & 1) == 0 ? 'S' : 'O';
+    }
+
+    // evaluatePosition rewards every SOS on the board, so completing one only helps the
+    // maximizing side; for the minimizing side those moves are left to the history tier
+    private int orderScore(int move, int hashMove, int ply, boolean isMaximizing) {
+        if (move == hashMove) return HASH_MOVE_SCORE;
+        if (!moveOrdering) return 0;
+
+        if (isMaximizing) {
+            int cell = move >>> 1;
+            int completed = game.countSOSCompletedBy(cell / boardSize, cell % boardSize, letterOf(move));
+            if (completed > 0) return COMPLETES_SOS_SCORE + completed;
+        }
+        if (killers[ply][0] == move) return KILLER_SCORE + 1;
+        if (killers[ply][1] == move) return KILLER_SCORE;
+        return history[move];
+    }
+
+    // Selection step: swap the best-scored remaining move into position i
+    private static void pickNext(int[] moves, int[] scores, int count, int i) {
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scores[j] > scores[best]) best = j;
+        }
+        if (best != i) {
+            int score = scores[i];
+            scores[i] = scores[best];
+            scores[best] = score;
+            int move = moves[i];
+            moves[i] = moves[best];
+            moves[best] = move;
+        }
+    }
+
+    // A move that is not an SOS caused a cutoff: remember it as a killer and in the history
+    private void recordQuietCutoff(int move, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        history[move] = Math.min(history[move] + depth * depth, KILLER_SCORE - 1);
+    }
+
+    // Allocate buffers for plies 0..depth before searching, never inside the tree
+    private void ensurePly(int depth) {
+        int oldLength = moveStack.length;
+        if (depth < oldLength) return;
+
+        int length = depth + 1;
+        moveStack = Arrays.copyOf(moveStack, length);
+        scoreStack = Arrays.copyOf(scoreStack, length);
+        killers = Arrays.copyOf(killers, length);
+        for (int i = oldLength; i < length; i++) {
+            moveStack[i] = new int[maxMoves];
+            scoreStack[i] = new int[maxMoves];
+            killers[i] = new int[] {TranspositionTable.NO_MOVE, TranspositionTable.NO_MOVE};
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package Game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless computer-vs-computer games spread over all cores, for balancing and
+// regression runs. Nothing here touches AWT or Swing.
+//
+//   java -cp bin Game.SelfPlaySimulator --size 6 --mode general --games 100000 --depth 2
+//   add --record games.sosr to append every game to a GameLog
+//   add --metrics true for latency, node and table-hit histograms over every move
+public class SelfPlaySimulator {
+
+    public static class Settings {
+        public int boardSize = 3;
+        public String mode = "general";
+        public long games = 1000;
+        public int threads = Runtime.getRuntime().availableProcessors();
+        public long seed = 1;
+        public Path recordFile = null;
+        public EngineSettings engine = new EngineSettings();
+
+        public static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+                String value = args[i + 1];
+                if (settings.engine.parseOption(args[i], value)) continue;
+                switch (args[i]) {
+                    case "--size": settings.boardSize = Integer.parseInt(value); break;
+                    case "--mode": settings.mode = value.toLowerCase(); break;
+                    case "--games": settings.games = Long.parseLong(value); break;
+                    case "--threads": settings.threads = Integer.parseInt(value); break;
+                    case "--seed": settings.seed = Long.parseLong(value); break;
+                    case "--record": settings.recordFile = Path.of(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (!settings.mode.equals("simple") && !settings.mode.equals("general"))
+                throw new IllegalArgumentException("Mode must be simple or general");
+            return settings;
+        }
+    }
+
+    public static class Result {
+        public long games;
+        public long blueWins;
+        public long redWins;
+        public long draws;
+        public long moves;
+        public long blueScore;
+        public long redScore;
+        public long elapsedNanos;
+
+        // Games by final score difference (blue - red), offset by maxScore
+        final long[] scoreDifferences;
+        private final int maxScore;
+
+        Result(int boardSize) {
+            this.maxScore = 4 * boardSize * boardSize;
+            this.scoreDifferences = new long[2 * maxScore + 1];
+        }
+
+        void record(SOSGameBase game, long moveCount) {
+            games++;
+            moves += moveCount;
+            if (game.getWinner() == null) draws++;
+            else if (game.getWinner().equals("Blue")) blueWins++;
+            else redWins++;
+            blueScore += game.getBlueScore();
+            redScore += game.getRedScore();
+            scoreDifferences[game.getBlueScore() - game.getRedScore() + maxScore]++;
+        }
+
+        void add(Result other) {
+            games += other.games;
+            blueWins += other.blueWins;
+            redWins += other.redWins;
+            draws += other.draws;
+            moves += other.moves;
+            blueScore += other.blueScore;
+            redScore += other.redScore;
+            for (int i = 0; i < scoreDifferences.length; i++) scoreDifferences[i] += other.scoreDifferences[i];
+        }
+
+        public double gamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : games / (elapsedNanos / 1e9);
+        }
+
+        public String report() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("games=%d elapsed=%.2fs games/sec=%.1f%n",
+                    games, elapsedNanos / 1e9, gamesPerSecond()));
+            sb.append(String.format("blue wins %.2f%%  red wins %.2f%%  draws %.2f%%%n",
+                    percent(blueWins), percent(redWins), percent(draws)));
+            sb.append(String.format("moves/game %.2f  blue score/game %.3f  red score/game %.3f%n",
+                    ratio(moves), ratio(blueScore), ratio(redScore)));
+            sb.append("score difference (blue - red):\n");
+            for (int i = 0; i < scoreDifferences.length; i++) {
+                if (scoreDifferences[i] > 0) {
+                    sb.append(String.format("  %+4d  %8d  %6.2f%%%n", i - maxScore, scoreDifferences[i], percent(scoreDifferences[i])));
+                }
+            }
+            return sb.toString();
+        }
+
+        private double percent(long count) { return games == 0 ? 0 : 100.0 * count / games; }
+        private double ratio(long total) { return games == 0 ? 0 : (double) total / games; }
+    }
+
+    private final Settings settings;
+
+    public SelfPlaySimulator(Settings settings) {
+        this.settings = settings;
+    }
+
+    public Result run() throws InterruptedException {
+        try (GameLog log = settings.recordFile == null ? null : new GameLog(settings.recordFile)) {
+            return run(log);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Result run(GameLog log) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        List<Callable<Result>> workers = new ArrayList<>();
+        for (int i = 0; i < settings.threads; i++) {
+            workers.add(() -> playGames(next, log));
+        }
+
+        Result total = new Result(settings.boardSize);
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.threads);
+        try {
+            for (Future<Result> result : executor.invokeAll(workers)) {
+                total.add(result.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation worker failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        total.elapsedNanos = System.nanoTime() - start;
+        return total;
+    }
+
+    // Each worker reuses one pair of engines and claims game numbers until none are left
+    private Result playGames(AtomicLong next, GameLog log) {
+        Result result = new Result(settings.boardSize);
+        SOSGame.ComputerPlayer blue = settings.engine.newPlayer("Blue");
+        SOSGame.ComputerPlayer red = settings.engine.newPlayer("Red");
+
+        long gameNumber;
+        while ((gameNumber = next.getAndIncrement()) < settings.games) {
+            playGame(gameNumber, blue, red, result, log);
+        }
+        return result;
+    }
+
+    // A game depends only on the base seed and its number, not on which thread plays it
+    private void playGame(long gameNumber, SOSGame.ComputerPlayer blue, SOSGame.ComputerPlayer red, Result result, GameLog log) {
+        long gameSeed = settings.seed ^ (gameNumber * 0x9E3779B97F4A7C15L);
+        blue.setSeed(gameSeed);
+        red.setSeed(~gameSeed);
+        blue.clearTranspositionTable();
+        red.clearTranspositionTable();
+
+        SOSGameBase game = settings.mode.equals("simple")
+                ? new SimpleSOSGame(settings.boardSize, blue, red)
+                : new GeneralSOSGame(settings.boardSize, blue, red);
+        if (log != null) game.startRecording();
+
+        long moves = 0;
+        while (!game.isGameOver()) {
+            SOSGame.ComputerPlayer player = (SOSGame.ComputerPlayer) game.getCurrentPlayer();
+            SOSGame.ComputerPlayer.Move move = player.computeBestMove(game);
+            game.applyMove(move.row, move.col, move.letter);
+            moves++;
+        }
+        result.record(game, moves);
+
+        if (log != null) {
+            try {
+                log.append(game.getRecord());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Settings settings = Settings.parse(args);
+        System.out.printf("size=%d mode=%s games=%d threads=%d seed=%d %s%n",
+                settings.boardSize, settings.mode, settings.games, settings.threads, settings.seed, settings.engine);
+        System.out.print(new SelfPlaySimulator(settings).run().report());
+        if (settings.engine.metrics != null) System.out.print(settings.engine.metrics.report());
+    }
+}
@@ -6,6 +6,17 @@ public class SimpleSOSGame extends SOSGameBase {
         super(boardSize, p1, p2, "simple");
     }
 
+    public SimpleSOSGame(int boardSize, SOSGame.Player p1, SOSGame.Player p2, Storage storage) {
+        super(boardSize, p1, p2, "simple", storage);
+    }
+
+    @Override
+    public SimpleSOSGame copy() {
+        SimpleSOSGame copy = new SimpleSOSGame(boardSize, bluePlayer, redPlayer, getStorage());
+        copy.copyStateFrom(this);
+        return copy;
+    }
+
     @Override
     public int checkForNewSOS() {
         int newLines = countNewSOS(currentPlayer);
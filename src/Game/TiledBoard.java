@@ -0,0 +1,172 @@
+package Game;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Sparse storage for very large boards. Cells live in TILE x TILE blocks that are
+// allocated when their first letter is placed and dropped when their last letter
+// is removed, so memory follows the number of filled cells rather than
+// boardSize^2. Each tile counts its letters and keeps the scored-line marks of
+// the lines centred in it.
+public class TiledBoard {
+
+    static final int TILE_BITS = 6;
+    static final int TILE = 1 << TILE_BITS;
+    private static final int MASK = TILE - 1;
+
+    private static final byte EMPTY = 0;
+    private static final byte S = 1;
+    private static final byte O = 2;
+
+    private static final class Tile {
+        final byte[] cells = new byte[TILE * TILE];
+        // One bit per cell and direction, allocated with the tile's first scored line
+        long[] scored;
+        int occupied;
+
+        Tile copy() {
+            Tile copy = new Tile();
+            System.arraycopy(cells, 0, copy.cells, 0, cells.length);
+            if (scored != null) copy.scored = scored.clone();
+            copy.occupied = occupied;
+            return copy;
+        }
+    }
+
+    private final int size;
+    private final int tilesPerSide;
+    private final Map<Integer, Tile> tiles = new HashMap<>();
+    private int filled = 0;
+
+    // The last tile looked up; neighbouring cells are usually in the same tile
+    private int lastKey = -1;
+    private Tile lastTile;
+
+    public TiledBoard(int size) {
+        this.size = size;
+        this.tilesPerSide = (size + MASK) >>> TILE_BITS;
+    }
+
+    public int getSize() { return size; }
+    public int getFilledCount() { return filled; }
+    public int getTileCount() { return tiles.size(); }
+
+    // Letters in the tile holding (row, col)
+    public int getOccupancy(int row, int col) {
+        Tile tile = tile(row, col);
+        return tile == null ? 0 : tile.occupied;
+    }
+
+    public char get(int row, int col) {
+        Tile tile = tile(row, col);
+        if (tile == null) return ' ';
+        byte cell = tile.cells[offset(row, col)];
+        return cell == S ? 'S' : cell == O ? 'O' : ' ';
+    }
+
+    public void set(int row, int col, char letter) {
+        byte value = letter == 'S' ? S : letter == 'O' ? O : EMPTY;
+        Tile tile = tile(row, col);
+        if (tile == null) {
+            if (value == EMPTY) return;
+            tile = new Tile();
+            lastKey = key(row, col);
+            lastTile = tile;
+            tiles.put(lastKey, tile);
+        }
+
+        int offset = offset(row, col);
+        byte old = tile.cells[offset];
+        tile.cells[offset] = value;
+        if (old == EMPTY && value != EMPTY) {
+            tile.occupied++;
+            filled++;
+        } else if (old != EMPTY && value == EMPTY) {
+            tile.occupied--;
+            filled--;
+            if (tile.occupied == 0 && tile.scored == null) drop(row, col);
+        }
+    }
+
+    // Whether the line centred on (row, col) in direction d (0..3) has been scored
+    public boolean isScored(int row, int col, int d) {
+        Tile tile = tile(row, col);
+        if (tile == null || tile.scored == null) return false;
+        int bit = offset(row, col) * 4 + d;
+        return (tile.scored[bit >>> 6] & 1L << bit) != 0;
+    }
+
+    // Mark a line as scored; its middle cell must hold a letter
+    public void setScored(int row, int col, int d) {
+        Tile tile = tile(row, col);
+        if (tile == null) throw new IllegalStateException("No letter at the middle of the line");
+        if (tile.scored == null) tile.scored = new long[TILE * TILE * 4 / 64];
+        int bit = offset(row, col) * 4 + d;
+        tile.scored[bit >>> 6] |= 1L << bit;
+    }
+
+    // Undo setScored; a tile left with no letters and no marks is dropped
+    public void clearScored(int row, int col, int d) {
+        Tile tile = tile(row, col);
+        if (tile == null || tile.scored == null) return;
+        int bit = offset(row, col) * 4 + d;
+        tile.scored[bit >>> 6] &= ~(1L << bit);
+        for (long word : tile.scored) {
+            if (word != 0) return;
+        }
+        tile.scored = null;
+        if (tile.occupied == 0) drop(row, col);
+    }
+
+    public interface CellVisitor {
+        void visit(int row, int col, char letter);
+    }
+
+    // Visit every filled cell, tile by tile, without scanning empty space
+    public void forEachFilled(CellVisitor visitor) {
+        for (Map.Entry<Integer, Tile> entry : tiles.entrySet()) {
+            int rowBase = entry.getKey() / tilesPerSide << TILE_BITS;
+            int colBase = entry.getKey() % tilesPerSide << TILE_BITS;
+            byte[] cells = entry.getValue().cells;
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] != EMPTY) visitor.visit(rowBase + (i >>> TILE_BITS), colBase + (i & MASK), cells[i] == S ? 'S' : 'O');
+            }
+        }
+    }
+
+    // Replace the contents of this board with a copy of other's
+    void copyFrom(TiledBoard other) {
+        tiles.clear();
+        for (Map.Entry<Integer, Tile> entry : other.tiles.entrySet()) {
+            tiles.put(entry.getKey(), entry.getValue().copy());
+        }
+        filled = other.filled;
+        lastKey = -1;
+        lastTile = null;
+    }
+
+    private Tile tile(int row, int col) {
+        int key = key(row, col);
+        if (key == lastKey) return lastTile;
+        Tile tile = tiles.get(key);
+        if (tile != null) {
+            lastKey = key;
+            lastTile = tile;
+        }
+        return tile;
+    }
+
+    private void drop(int row, int col) {
+        tiles.remove(key(row, col));
+        lastKey = -1;
+        lastTile = null;
+    }
+
+    private int key(int row, int col) {
+        return (row >>> TILE_BITS) * tilesPerSide + (col >>> TILE_BITS);
+    }
+
+    private static int offset(int row, int col) {
+        return (row & MASK) << TILE_BITS | (col & MASK);
+    }
+}
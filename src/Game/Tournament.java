@@ -0,0 +1,277 @@
+package Game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless match between two engine configurations, A and B, spread over all cores.
+// Games cycle through every board size and mode, and each opening setup is played
+// twice with the colours swapped. The report gives A's Elo difference with a 95%
+// confidence interval and each side's average think time per move.
+//
+// With --sprt-elo0/--sprt-elo1 the match is a sequential probability ratio test of
+// "A is elo0 stronger" against "A is elo1 stronger" and stops as soon as either is
+// accepted (alpha = beta = 0.05), or after --games games without a decision.
+//
+//   java -cp bin Game.Tournament --games 400 --sizes 4,6 --modes simple,general \
+//        --a-depth 3 --b-depth 2 --sprt-elo0 0 --sprt-elo1 30
+public class Tournament {
+
+    private static final double Z_95 = 1.96;
+    private static final double SPRT_ALPHA = 0.05;
+    private static final double SPRT_BETA = 0.05;
+
+    public static class Settings {
+        public int[] boardSizes = {4, 6};
+        public String[] modes = {"simple", "general"};
+        public long games = 200;
+        public int threads = Runtime.getRuntime().availableProcessors();
+        public long seed = 1;
+        public EngineSettings engineA = new EngineSettings();
+        public EngineSettings engineB = new EngineSettings();
+        // SPRT hypotheses in Elo; off unless elo1 differs from elo0
+        public double sprtElo0 = 0;
+        public double sprtElo1 = 0;
+
+        public static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+                String option = args[i];
+                String value = args[i + 1];
+                if (option.startsWith("--a-") && settings.engineA.parseOption("--" + option.substring(4), value)) continue;
+                if (option.startsWith("--b-") && settings.engineB.parseOption("--" + option.substring(4), value)) continue;
+                switch (option) {
+                    case "--sizes": settings.boardSizes = parseSizes(value); break;
+                    case "--modes": settings.modes = value.toLowerCase().split(","); break;
+                    case "--games": settings.games = Long.parseLong(value); break;
+                    case "--threads": settings.threads = Integer.parseInt(value); break;
+                    case "--seed": settings.seed = Long.parseLong(value); break;
+                    case "--sprt-elo0": settings.sprtElo0 = Double.parseDouble(value); break;
+                    case "--sprt-elo1": settings.sprtElo1 = Double.parseDouble(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + option);
+                }
+            }
+            for (String mode : settings.modes) {
+                if (!mode.equals("simple") && !mode.equals("general"))
+                    throw new IllegalArgumentException("Mode must be simple or general");
+            }
+            return settings;
+        }
+
+        private static int[] parseSizes(String value) {
+            String[] parts = value.split(",");
+            int[] sizes = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) sizes[i] = Integer.parseInt(parts[i].trim());
+            return sizes;
+        }
+
+        boolean sprtEnabled() { return sprtElo1 != sprtElo0; }
+    }
+
+    // Counts from A's point of view
+    public static class Result {
+        public long wins;
+        public long draws;
+        public long losses;
+        public long gamesAsBlue;
+        public long movesA;
+        public long movesB;
+        public long thinkNanosA;
+        public long thinkNanosB;
+        public long elapsedNanos;
+        // H0, H1, or null if the SPRT is off or undecided
+        public String sprtDecision;
+        public double llr;
+
+        public long games() { return wins + draws + losses; }
+
+        public double score() {
+            return games() == 0 ? 0.5 : (wins + 0.5 * draws) / games();
+        }
+
+        public double elo() { return Tournament.elo(score()); }
+
+        // Standard error of the mean score per game
+        public double scoreError() {
+            long n = games();
+            if (n < 2) return Double.NaN;
+            double s = score();
+            double variance = (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s) / n;
+            return Math.sqrt(variance / n);
+        }
+
+        public double eloLow() { return Tournament.elo(score() - Z_95 * scoreError()); }
+        public double eloHigh() { return Tournament.elo(score() + Z_95 * scoreError()); }
+
+        public double thinkMillisA() { return movesA == 0 ? 0 : thinkNanosA / 1e6 / movesA; }
+        public double thinkMillisB() { return movesB == 0 ? 0 : thinkNanosB / 1e6 / movesB; }
+
+        void add(Result other) {
+            wins += other.wins;
+            draws += other.draws;
+            losses += other.losses;
+            gamesAsBlue += other.gamesAsBlue;
+            movesA += other.movesA;
+            movesB += other.movesB;
+            thinkNanosA += other.thinkNanosA;
+            thinkNanosB += other.thinkNanosB;
+        }
+
+        public String report() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("games=%d (A blue in %d) elapsed=%.1fs%n", games(), gamesAsBlue, elapsedNanos / 1e9));
+            sb.append(String.format("A: +%d =%d -%d  score %.1f%%%n", wins, draws, losses, 100 * score()));
+            sb.append(String.format("Elo A-B %+.1f  95%% CI [%+.1f, %+.1f]%n", elo(), eloLow(), eloHigh()));
+            sb.append(String.format("think time per move: A %.2f ms  B %.2f ms%n", thinkMillisA(), thinkMillisB()));
+            if (sprtDecision != null) sb.append(String.format("SPRT: %s accepted (LLR %.2f)%n", sprtDecision, llr));
+            return sb.toString();
+        }
+    }
+
+    private final Settings settings;
+    // Running totals for the SPRT, updated as games finish
+    private final Result live = new Result();
+    private volatile boolean stopped = false;
+
+    public Tournament(Settings settings) {
+        this.settings = settings;
+    }
+
+    // Elo difference that gives the stronger side an expected score of score
+    public static double elo(double score) {
+        if (Double.isNaN(score)) return Double.NaN;
+        if (score <= 0) return Double.NEGATIVE_INFINITY;
+        if (score >= 1) return Double.POSITIVE_INFINITY;
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    // Log-likelihood ratio of H1 (elo1) against H0 (elo0) for the results so far,
+    // using the normal approximation to the trinomial win/draw/loss distribution
+    public static double llr(long wins, long draws, long losses, double elo0, double elo1) {
+        long n = wins + draws + losses;
+        if (n == 0 || wins + draws == 0 || draws + losses == 0) return 0;
+        double s = (wins + 0.5 * draws) / n;
+        double variance = (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s) / n;
+        if (variance == 0) return 0;
+        double s0 = 1 / (1 + Math.pow(10, -elo0 / 400));
+        double s1 = 1 / (1 + Math.pow(10, -elo1 / 400));
+        return n * (s1 - s0) * (2 * s - s0 - s1) / (2 * variance);
+    }
+
+    public Result run() throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        List<Callable<Result>> workers = new ArrayList<>();
+        for (int i = 0; i < settings.threads; i++) {
+            workers.add(() -> playGames(next));
+        }
+
+        Result total = new Result();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.threads);
+        try {
+            for (Future<Result> result : executor.invokeAll(workers)) {
+                total.add(result.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament worker failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        total.elapsedNanos = System.nanoTime() - start;
+        synchronized (live) {
+            total.sprtDecision = live.sprtDecision;
+            total.llr = live.llr;
+        }
+        return total;
+    }
+
+    // Each worker owns both engines in both colours and claims game numbers until
+    // none are left or the SPRT has decided
+    private Result playGames(AtomicLong next) {
+        Result result = new Result();
+        SOSGame.ComputerPlayer[] a = {settings.engineA.newPlayer("Blue"), settings.engineA.newPlayer("Red")};
+        SOSGame.ComputerPlayer[] b = {settings.engineB.newPlayer("Blue"), settings.engineB.newPlayer("Red")};
+
+        long gameNumber;
+        while (!stopped && (gameNumber = next.getAndIncrement()) < settings.games) {
+            playGame(gameNumber, a, b, result);
+        }
+        return result;
+    }
+
+    // Games 2k and 2k + 1 share a board, mode and seed, with A blue in the first
+    private void playGame(long gameNumber, SOSGame.ComputerPlayer[] a, SOSGame.ComputerPlayer[] b, Result result) {
+        long pair = gameNumber / 2;
+        boolean aIsBlue = gameNumber % 2 == 0;
+        int setups = settings.boardSizes.length * settings.modes.length;
+        int boardSize = settings.boardSizes[(int) (pair % setups) % settings.boardSizes.length];
+        String mode = settings.modes[(int) (pair % setups) / settings.boardSizes.length];
+
+        SOSGame.ComputerPlayer blue = aIsBlue ? a[0] : b[0];
+        SOSGame.ComputerPlayer red = aIsBlue ? b[1] : a[1];
+        long gameSeed = settings.seed ^ (pair * 0x9E3779B97F4A7C15L);
+        blue.setSeed(gameSeed);
+        red.setSeed(~gameSeed);
+        blue.clearTranspositionTable();
+        red.clearTranspositionTable();
+
+        SOSGameBase game = mode.equals("simple")
+                ? new SimpleSOSGame(boardSize, blue, red)
+                : new GeneralSOSGame(boardSize, blue, red);
+
+        Result outcome = new Result();
+        while (!game.isGameOver()) {
+            SOSGame.ComputerPlayer player = (SOSGame.ComputerPlayer) game.getCurrentPlayer();
+            long start = System.nanoTime();
+            SOSGame.ComputerPlayer.Move move = player.computeBestMove(game);
+            long nanos = System.nanoTime() - start;
+            if ((player == blue) == aIsBlue) {
+                outcome.movesA++;
+                outcome.thinkNanosA += nanos;
+            } else {
+                outcome.movesB++;
+                outcome.thinkNanosB += nanos;
+            }
+            game.applyMove(move.row, move.col, move.letter);
+        }
+
+        String winner = game.getWinner();
+        if (winner == null) outcome.draws++;
+        else if (winner.equals("Blue") == aIsBlue) outcome.wins++;
+        else outcome.losses++;
+        if (aIsBlue) outcome.gamesAsBlue++;
+        result.add(outcome);
+        recordForSprt(outcome);
+    }
+
+    private void recordForSprt(Result outcome) {
+        if (!settings.sprtEnabled()) return;
+        synchronized (live) {
+            live.add(outcome);
+            if (live.sprtDecision != null) return;
+            live.llr = llr(live.wins, live.draws, live.losses, settings.sprtElo0, settings.sprtElo1);
+            if (live.llr >= Math.log((1 - SPRT_BETA) / SPRT_ALPHA)) live.sprtDecision = "H1";
+            else if (live.llr <= Math.log(SPRT_BETA / (1 - SPRT_ALPHA))) live.sprtDecision = "H0";
+            if (live.sprtDecision != null) stopped = true;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Settings settings = Settings.parse(args);
+        System.out.printf("sizes=%s modes=%s games=%d threads=%d seed=%d%n",
+                java.util.Arrays.toString(settings.boardSizes), String.join(",", settings.modes),
+                settings.games, settings.threads, settings.seed);
+        System.out.println("A: " + settings.engineA);
+        System.out.println("B: " + settings.engineB);
+        if (settings.sprtEnabled()) System.out.printf("SPRT elo0=%.1f elo1=%.1f%n", settings.sprtElo0, settings.sprtElo1);
+        System.out.print(new Tournament(settings).run().report());
+        if (settings.engineA.metrics != null) System.out.print("A metrics\n" + settings.engineA.metrics.report());
+        if (settings.engineB.metrics != null) System.out.print("B metrics\n" + settings.engineB.metrics.report());
+    }
+}
@@ -0,0 +1,89 @@
+package Game;
+
+// Fixed-size, lock-free transposition table. Each slot holds a verification word
+// (key ^ info ^ move), the packed info word and the best move, so a slot torn by
+// concurrent writers simply fails verification and reads as a miss.
+public class TranspositionTable {
+
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    public static final int NO_MOVE = -1;
+
+    public enum ReplacementPolicy {
+        ALWAYS,           // newest entry wins
+        DEPTH_PREFERRED   // keep deeper entries from the current search
+    }
+
+    // Probe result holder, reused by the caller to avoid allocation
+    public static class Entry {
+        public int value;
+        public int depth;
+        public int bound;
+        public int move;
+    }
+
+    private final long[] slots;
+    private final int mask;
+    private final ReplacementPolicy policy;
+    private int age = 0;
+
+    public TranspositionTable(int sizeBits, ReplacementPolicy policy) {
+        if (sizeBits < 1 || sizeBits > 26)
+            throw new IllegalArgumentException("sizeBits must be between 1 and 26");
+        this.slots = new long[3 << sizeBits];
+        this.mask = (1 << sizeBits) - 1;
+        this.policy = policy;
+    }
+
+    public ReplacementPolicy getPolicy() { return policy; }
+    public int capacity() { return mask + 1; }
+
+    // Start a new search; older entries become preferred replacement victims
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(slots, 0L);
+    }
+
+    public boolean probe(long key, Entry out) {
+        int i = index(key);
+        long info = slots[i + 1];
+        long move = slots[i + 2];
+        if (info == 0 || (slots[i] ^ info ^ move) != key) return false;
+
+        out.value = (int) info;
+        out.depth = (int) (info >>> 32) & 0xFF;
+        out.bound = (int) (info >>> 40) & 0x3;
+        out.move = (int) move;
+        return true;
+    }
+
+    public void store(long key, int depth, int bound, int value, int move) {
+        int i = index(key);
+        long oldInfo = slots[i + 1];
+        if (policy == ReplacementPolicy.DEPTH_PREFERRED && oldInfo != 0) {
+            boolean sameKey = (slots[i] ^ oldInfo ^ slots[i + 2]) == key;
+            int oldDepth = (int) (oldInfo >>> 32) & 0xFF;
+            int oldAge = (int) (oldInfo >>> 48) & 0xFF;
+            if (!sameKey && oldAge == age && oldDepth > depth) return;
+        }
+
+        long info = (value & 0xFFFFFFFFL)
+                | ((long) Math.min(depth, 0xFF) << 32)
+                | ((long) bound << 40)
+                | (1L << 42)          // occupied, so a stored entry is never all zero
+                | ((long) age << 48);
+        long packedMove = move;
+        slots[i] = key ^ info ^ packedMove;
+        slots[i + 1] = info;
+        slots[i + 2] = packedMove;
+    }
+
+    private int index(long key) {
+        return ((int) (key ^ (key >>> 32)) & mask) * 3;
+    }
+}
@@ -0,0 +1,33 @@
+package Game;
+
+// Zobrist keys derived from a fixed mixing function, so equal positions hash
+// the same in every game and no key table has to be allocated per board size
+public final class Zobrist {
+
+    private static final long SEED = 0x5F3759DF2B7E1516L;
+
+    public static final long BLUE_TO_MOVE = mix(SEED ^ 0x426C7565L);
+
+    private Zobrist() { }
+
+    public static long cell(int row, int col, int boardSize, char letter) {
+        return cell(row * boardSize + col, letter);
+    }
+
+    // Same key, by cell index (row * boardSize + col)
+    public static long cell(int cell, char letter) {
+        long index = (long) cell * 2 + (letter == 'O' ? 1 : 0);
+        return mix(SEED + index);
+    }
+
+    public static long scoreDifference(int diff) {
+        return diff == 0 ? 0 : mix(SEED ^ ((long) diff << 32));
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}